@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.openclassrooms.starterjwt.models.Teacher;
+
+/**
+ * Hibernate second-level cache on heap-bounded Caffeine regions, with statistics published as hibernate.* meters.
+ * Each application context gets its own CacheManager so contexts sharing a JVM never see each other's entries,
+ * and only the regions declared here exist (a new @Cache entity must add its region).
+ */
+@Configuration
+public class HibernateCacheConfig {
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(@Value("${oc.app.teacherCacheMaxSize:1000}") long teacherMaxSize,
+			@Value("${oc.app.teacherCacheTtlMs:3600000}") long teacherTtlMs) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+		cacheManager.createCache(Teacher.class.getName(), region(teacherMaxSize, teacherTtlMs));
+		cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+				region(teacherMaxSize, teacherTtlMs));
+		// one entry per table; must outlive every cached query result
+		CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+		timestamps.setStoreByValue(false);
+		cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+			properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+			// statistics alone would also log a "Session Metrics" block at INFO when every session closes
+			properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+		};
+	}
+
+	private static CaffeineConfiguration<Object, Object> region(long maximumSize, long ttlMs) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maximumSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+		// Hibernate already stores disassembled, immutable entries; copying them on every read buys nothing
+		configuration.setStoreByValue(false);
+		return configuration;
+	}
+}
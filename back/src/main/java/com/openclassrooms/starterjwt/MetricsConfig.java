@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Enables @Timed on service methods. HTTP, repository, connection-pool and executor meters come from
+ * Spring Boot's auto-configuration; everything is scraped from /actuator/prometheus with the basic-auth scrape user
+ * of MetricsSecurityConfig (only /actuator/health is public).
+ */
+@Configuration
+public class MetricsConfig {
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+}
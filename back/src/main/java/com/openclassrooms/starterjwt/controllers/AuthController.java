@@ -1,12 +1,13 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.Valid;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,12 +17,16 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingExecutor;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.RefreshTokenService;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -31,58 +36,85 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UserDetailsCache userDetailsCache,
+            PasswordHashingExecutor passwordHashingExecutor,
+            RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.refreshTokenService = refreshTokenService;
     }
 
+    // the servlet thread is released while BCrypt runs; signing and storing the refresh token finish on the hashing thread
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())))
+                .thenApply(authentication -> {
+                    String jwt = jwtUtils.generateJwtToken(authentication);
+                    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
-        }
+                    return ResponseEntity.ok(jwtResponse(jwt, userDetails, refreshTokenService.create(userDetails.getId())));
+                });
+    }
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getFirstName(),
-                userDetails.getLastName(),
-                isAdmin));
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        return refreshTokenService.rotate(refreshRequest.getRefreshToken())
+                .<ResponseEntity<?>>map(rotation -> {
+                    UserDetailsImpl userDetails = UserDetailsImpl.build(rotation.getUser());
+                    return ResponseEntity.ok(jwtResponse(jwtUtils.generateJwtToken(userDetails),
+                            userDetails,
+                            rotation.getRefreshToken()));
+                })
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.UNAUTHORIZED)
+                        .body(new MessageResponse("Error: Invalid refresh token")));
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
+                    .body(new MessageResponse("Error: Email is already taken!")));
         }
 
-        // Create new user's account
-        User user = new User(signUpRequest.getEmail(),
-                signUpRequest.getLastName(),
-                signUpRequest.getFirstName(),
-                passwordEncoder.encode(signUpRequest.getPassword()),
-                false);
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(signUpRequest.getPassword()))
+                .thenApply(password -> {
+                    // Create new user's account
+                    User user = new User(signUpRequest.getEmail(),
+                            signUpRequest.getLastName(),
+                            signUpRequest.getFirstName(),
+                            password,
+                            false);
+
+                    userRepository.save(user);
+                    userDetailsCache.evict(user.getEmail());
 
-        userRepository.save(user);
+                    return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+                });
+    }
 
-        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    private JwtResponse jwtResponse(String jwt, UserDetailsImpl userDetails, String refreshToken) {
+        JwtResponse response = new JwtResponse(jwt,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                Boolean.TRUE.equals(userDetails.getAdmin()));
+        response.setRefreshToken(refreshToken);
+        return response;
     }
 }
@@ -0,0 +1,53 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.AttendanceExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+    private final AttendanceExportService attendanceExportService;
+
+
+    public ExportController(AttendanceExportService attendanceExportService) {
+        this.attendanceExportService = attendanceExportService;
+    }
+
+    @GetMapping("/attendance")
+    public ResponseEntity<StreamingResponseBody> attendance(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl)
+                || !Boolean.TRUE.equals(((UserDetailsImpl) authentication.getPrincipal()).getAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        AttendanceExportService.Format exportFormat;
+        try {
+            exportFormat = AttendanceExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // written on an MVC async thread while rows are read, see spring.mvc.async.request-timeout
+        StreamingResponseBody body = out -> this.attendanceExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("attendance." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -2,14 +2,25 @@ package com.openclassrooms.starterjwt.controllers;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
+import com.openclassrooms.starterjwt.services.SessionCatalogCache;
+import com.openclassrooms.starterjwt.services.SessionImportService;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,46 +28,101 @@ import java.util.List;
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    // clients may keep the body but must revalidate it with If-None-Match; overrides Spring Security's no-store
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SessionCatalogCache sessionCatalogCache;
+    private final SessionImportService sessionImportService;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             SessionCatalogCache sessionCatalogCache,
+                             SessionImportService sessionImportService) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.sessionCatalogCache = sessionCatalogCache;
+        this.sessionImportService = sessionImportService;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            SessionCatalogCache.Tagged<SessionDto> sessionDto = this.sessionCatalogCache.get(Long.valueOf(id), sessionId -> {
+                Session session = this.sessionService.getById(sessionId);
+                return session == null ? null : this.sessionMapper.toDto(session);
+            });
 
-            if (session == null) {
+            if (sessionDto == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            // a matching If-None-Match is answered with 304 before the body is written
+            return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(sessionDto.getETag()).body(sessionDto.getValue());
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "limit", required = false) Integer limit,
+                                     @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            SessionCatalogCache.Tagged<List<SessionDto>> catalog = this.sessionCatalogCache.getAll(() -> {
+                List<Session> sessions = this.sessionService.findAll();
+                return this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(sessions));
+            });
+
+            return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(catalog.getETag()).body(catalog.getValue());
+        }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        try {
+            int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+            if (size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            SessionCursor after = cursor == null ? null : SessionCursor.decode(cursor);
+            List<Session> sessions = this.sessionService.findPage(after, size + 1);
+
+            String nextCursor = null;
+            if (sessions.size() > size) {
+                sessions = sessions.subList(0, size);
+                nextCursor = SessionCursor.of(sessions.get(size - 1)).encode();
+            }
+
+            return ResponseEntity.ok().body(new SessionPageResponse(
+                    this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(sessions)), nextCursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
-        log.info(sessionDto);
+        log.debug("Creating session {}", sessionDto);
+
+        try {
+            Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
+
+            log.info("Created session id={} teacher_id={} participants={}", session.getId(),
+                    sessionDto.getTeacher_id(), session.getUsers() == null ? 0 : session.getUsers().size());
+            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
 
-        Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
+    // the body is read as a stream, a JSON array or one session per line, so it is never held in memory as a whole
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importSessions(InputStream body) throws IOException {
+        SessionImportResponse response = this.sessionImportService.importSessions(body);
 
-        log.info(session);
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+        return ResponseEntity.ok().body(response);
     }
 
     @PutMapping("{id}")
@@ -67,6 +133,8 @@ public class SessionController {
             return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
 
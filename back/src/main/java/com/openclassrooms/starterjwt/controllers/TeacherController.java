@@ -1,8 +1,11 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.ETags;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -11,6 +14,9 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/teacher")
 public class TeacherController {
+    // clients may keep the body but must revalidate it with If-None-Match; overrides Spring Security's no-store
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TeacherMapper teacherMapper;
     private final TeacherService teacherService;
 
@@ -30,7 +36,8 @@ public class TeacherController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
+            TeacherDto teacherDto = this.teacherMapper.toDto(teacher);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(ETags.ofTeacher(teacherDto)).body(teacherDto);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -38,8 +45,9 @@ public class TeacherController {
 
     @GetMapping()
     public ResponseEntity<?> findAll() {
-        List<Teacher> teachers = this.teacherService.findAll();
+        // teachers come from the second-level and query caches, so only the mapping runs before a 304
+        List<TeacherDto> teacherDtos = this.teacherMapper.toDto(this.teacherService.findAll());
 
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(ETags.ofTeachers(teacherDtos)).body(teacherDtos);
     }
 }
@@ -2,6 +2,9 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import io.jsonwebtoken.Claims;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Objects;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,12 +21,15 @@ import java.util.Objects;
 public class UserController {
     private final UserMapper userMapper;
     private final UserService userService;
+    private final TokenRevocationList tokenRevocationList;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             TokenRevocationList tokenRevocationList) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @GetMapping("/{id}")
@@ -41,7 +48,7 @@ public class UserController {
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<?> save(@PathVariable("id") String id) {
+    public ResponseEntity<?> save(@PathVariable("id") String id, HttpServletRequest request) {
         try {
             User user = this.userService.findById(Long.valueOf(id));
 
@@ -56,6 +63,41 @@ public class UserController {
             }
 
             this.userService.delete(Long.parseLong(id));
+
+            Claims claims = (Claims) request.getAttribute(AuthTokenFilter.CLAIMS_ATTRIBUTE);
+            if (claims != null) {
+                this.tokenRevocationList.revoke(claims);
+            }
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // "log out everywhere": bumps the token version so every access token issued so far fails the version check,
+    // and drops the user's refresh tokens so none of them can mint a new one
+    @PostMapping("{id}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable("id") String id, HttpServletRequest request) {
+        try {
+            User user = this.userService.findById(Long.valueOf(id));
+
+            if (user == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+            if(!Objects.equals(userDetails.getUsername(), user.getEmail())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            this.userService.revokeTokens(Long.parseLong(id));
+
+            // other nodes only see the new version once their cache entry expires; the calling token goes at once
+            Claims claims = (Claims) request.getAttribute(AuthTokenFilter.CLAIMS_ATTRIBUTE);
+            if (claims != null) {
+                this.tokenRevocationList.revoke(claims);
+            }
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
@@ -0,0 +1,66 @@
+package com.openclassrooms.starterjwt.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+/**
+ * Strong ETags digested from every serialized field of a DTO, so two responses share a tag only if their bodies match.
+ * A field added to {@link SessionDto} or {@link TeacherDto} must be added here as well.
+ */
+public final class ETags {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final byte FIELD_SEPARATOR = 0x1f;
+    private static final byte RECORD_SEPARATOR = 0x1e;
+    private static final byte[] NULL = {0};
+
+    private ETags() {
+    }
+
+    public static String ofSession(SessionDto session) {
+        return ofSessions(Collections.singletonList(session));
+    }
+
+    public static String ofSessions(Collection<SessionDto> sessions) {
+        return digest(sessions.stream().map(session -> new Object[] {
+                session.getId(), session.getName(), session.getDate() == null ? null : session.getDate().getTime(),
+                session.getTeacher_id(), session.getDescription(), session.getUsers(),
+                session.getCreatedAt(), session.getUpdatedAt()}));
+    }
+
+    public static String ofTeacher(TeacherDto teacher) {
+        return ofTeachers(Collections.singletonList(teacher));
+    }
+
+    public static String ofTeachers(Collection<TeacherDto> teachers) {
+        return digest(teachers.stream().map(teacher -> new Object[] {
+                teacher.getId(), teacher.getLastName(), teacher.getFirstName(),
+                teacher.getCreatedAt(), teacher.getUpdatedAt()}));
+    }
+
+    private static String digest(Stream<Object[]> records) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        records.forEach(fields -> {
+            for (Object field : fields) {
+                digest.update(field == null ? NULL : String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update(FIELD_SEPARATOR);
+            }
+            digest.update(RECORD_SEPARATOR);
+        });
+        // 128 bits is plenty to tell representations apart and keeps the header short
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16));
+    }
+}
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.TeacherService;
@@ -8,12 +9,17 @@ import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -28,10 +34,27 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(this.resolveUsers(sessionDto.getUsers()))"),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
+    protected List<User> resolveUsers(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> distinctIds = userIds.stream().distinct().collect(Collectors.toList());
+        Map<Long, User> usersById = this.userService.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Long> missingIds = distinctIds.stream().filter(id -> !usersById.containsKey(id)).collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + missingIds);
+        }
+
+        return distinctIds.stream().map(usersById::get).collect(Collectors.toList());
+    }
+
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
@@ -39,4 +62,20 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "description", target = "description"),
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    public abstract SessionDto toDtoWithoutUsers(Session session);
+
+    public List<SessionDto> toDto(List<Session> sessions, Map<Long, List<Long>> participantIds) {
+        return sessions.stream().map(session -> {
+            SessionDto sessionDto = toDtoWithoutUsers(session);
+            sessionDto.setUsers(participantIds.getOrDefault(session.getId(), Collections.emptyList()));
+            return sessionDto;
+        }).collect(Collectors.toList());
+    }
 }
@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -26,7 +28,12 @@ import java.time.LocalDateTime;
 @ToString
 public class User {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "user_id")
+  @GenericGenerator(name = "user_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+    @Parameter(name = "table_name", value = "ID_GENERATORS"),
+    @Parameter(name = "segment_value", value = "USERS"),
+    @Parameter(name = "increment_size", value = "50"),
+    @Parameter(name = "optimizer", value = "pooled-lo")})
   private Long id;
 
   @NonNull
@@ -44,6 +51,7 @@ public class User {
   @Column(name = "first_name")
   private String firstName;
 
+  @ToString.Exclude
   @NonNull
   @Size(max = 120)
   private String password;
@@ -51,6 +59,9 @@ public class User {
   @NonNull
   private boolean admin;
 
+  @Column(name = "token_version", nullable = false)
+  private int tokenVersion;
+
   @CreatedDate
   @Column(name = "created_at", updatable = false)
   private LocalDateTime createdAt;
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the application DataSource so every statement goes through {@link SlowQueryLogger}.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+  @Bean
+  public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLogger> slowQueryLogger) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+          return bean;
+        }
+
+        return ProxyDataSourceBuilder.create((DataSource) bean)
+            .name(beanName)
+            .listener(slowQueryLogger.getObject())
+            .build();
+      }
+    };
+  }
+}
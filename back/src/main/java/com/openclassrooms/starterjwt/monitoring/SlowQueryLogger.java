@@ -0,0 +1,149 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Logs statements slower than oc.app.slowQueryThresholdMs at WARN, plus a random oc.app.sqlLogSampleRate share
+ * of the others at INFO, with duration, calling route and bind-parameter types (never values).
+ * The request thread only captures those fields; formatting and appending happen on a single background
+ * thread with a bounded queue, and entries are dropped (counted as sql.log.dropped) rather than blocking.
+ */
+@Component
+public class SlowQueryLogger implements QueryExecutionListener {
+  private static final Logger logger = LoggerFactory.getLogger(SlowQueryLogger.class);
+
+  private final long thresholdMs;
+  private final double sampleRate;
+  private final ThreadPoolExecutor executor;
+
+  public SlowQueryLogger(@Value("${oc.app.slowQueryThresholdMs:200}") long thresholdMs,
+      @Value("${oc.app.sqlLogSampleRate:0}") double sampleRate,
+      @Value("${oc.app.sqlLogQueueCapacity:1000}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    this.thresholdMs = thresholdMs;
+    this.sampleRate = sampleRate;
+
+    Counter dropped = Counter.builder("sql.log.dropped")
+        .description("Slow or sampled statements not logged because the log queue was full")
+        .register(meterRegistry);
+    this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "sql-log");
+          thread.setDaemon(true);
+          return thread;
+        }, (runnable, pool) -> dropped.increment());
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    long elapsedMs = execInfo.getElapsedTime();
+    boolean slow = elapsedMs >= thresholdMs;
+    if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
+
+    // QueryInfo is reused by the driver proxy once the statement is re-executed, so copy what we need now
+    List<String> queries = new ArrayList<>(queryInfoList.size());
+    List<String> parameterShapes = new ArrayList<>(queryInfoList.size());
+    for (QueryInfo queryInfo : queryInfoList) {
+      queries.add(queryInfo.getQuery());
+      parameterShapes.add(parameterShape(queryInfo));
+    }
+
+    Entry entry = new Entry(slow, elapsedMs, execInfo.isSuccess(), execInfo.getBatchSize(), endpoint(),
+        queries, parameterShapes);
+    executor.execute(entry::log);
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  private static String endpoint() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return "-";
+    }
+
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+  }
+
+  private static String parameterShape(QueryInfo queryInfo) {
+    if (queryInfo.getParametersList().isEmpty()) {
+      return "[]";
+    }
+
+    List<String> types = new ArrayList<>();
+    for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+      Object[] args = operation.getArgs();
+      boolean isNull = ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2 || args[1] == null;
+      types.add(isNull ? "null" : args[1].getClass().getSimpleName());
+    }
+    return types.toString();
+  }
+
+  private static class Entry {
+    private final boolean slow;
+    private final long elapsedMs;
+    private final boolean success;
+    private final int batchSize;
+    private final String endpoint;
+    private final List<String> queries;
+    private final List<String> parameterShapes;
+
+    Entry(boolean slow, long elapsedMs, boolean success, int batchSize, String endpoint, List<String> queries,
+        List<String> parameterShapes) {
+      this.slow = slow;
+      this.elapsedMs = elapsedMs;
+      this.success = success;
+      this.batchSize = batchSize;
+      this.endpoint = endpoint;
+      this.queries = queries;
+      this.parameterShapes = parameterShapes;
+    }
+
+    void log() {
+      for (int i = 0; i < queries.size(); i++) {
+        String message = "sql duration_ms={} endpoint=\"{}\" success={} batch_size={} params={} query=\"{}\"";
+        Object[] arguments = {elapsedMs, endpoint, success, batchSize, parameterShapes.get(i), queries.get(i)};
+        if (slow) {
+          logger.warn(message, arguments);
+        } else {
+          logger.info(message, arguments);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Opaque continuation token for the keyset-paginated session listing.
+ * It points at the last (date, id) pair returned so that the next page starts right after it.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SessionCursor {
+  private final Date date;
+
+  private final Long id;
+
+  public static SessionCursor of(Session session) {
+    return new SessionCursor(session.getDate(), session.getId());
+  }
+
+  public String encode() {
+    String raw = date.getTime() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static SessionCursor decode(String token) {
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    int separator = raw.indexOf(':');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Invalid session cursor");
+    }
+
+    return new SessionCursor(new Date(Long.parseLong(raw.substring(0, separator))),
+        Long.valueOf(raw.substring(separator + 1)));
+  }
+}
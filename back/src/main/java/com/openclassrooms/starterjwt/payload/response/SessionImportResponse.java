@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SessionImportResponse {
+  private long imported;
+
+  private List<RowError> errors;
+
+  @Getter
+  @AllArgsConstructor
+  public static class RowError {
+    // zero-based position of the session in the request body
+    private int row;
+
+    private String message;
+  }
+}
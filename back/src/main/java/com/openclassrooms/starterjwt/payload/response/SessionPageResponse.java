@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import java.util.List;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SessionPageResponse {
+  private List<SessionDto> sessions;
+
+  private String nextCursor;
+}
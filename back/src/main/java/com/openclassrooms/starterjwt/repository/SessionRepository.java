@@ -1,9 +1,44 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    @Override
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findAll();
+
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findAllByOrderByDateAscIdAsc(Pageable pageable);
+
+    @EntityGraph(attributePaths = "teacher")
+    @Query("SELECT s FROM Session s WHERE s.date > :date OR (s.date = :date AND s.id > :id) ORDER BY s.date ASC, s.id ASC")
+    List<Session> findPageAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    // ordered so equal participation always maps to equal DTOs, and so to equal ETags
+    @Query(value = "SELECT session_id, user_id FROM PARTICIPATE WHERE session_id IN (:sessionIds) "
+            + "ORDER BY session_id, user_id", nativeQuery = true)
+    List<Object[]> findParticipantIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) "
+            + "SELECT s.id, u.id FROM SESSIONS s, USERS u WHERE s.id = :sessionId AND u.id = :userId "
+            + "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = :userId)",
+            nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
 }
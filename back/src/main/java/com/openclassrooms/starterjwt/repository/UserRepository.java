@@ -3,6 +3,9 @@ package com.openclassrooms.starterjwt.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.openclassrooms.starterjwt.models.User;
@@ -12,4 +15,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
   Boolean existsByEmail(String email); 
+
+  @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+  Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+  @Modifying
+  @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+  int incrementTokenVersion(@Param("id") Long id);
 }
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The Prometheus scrape endpoint, checked before the API chain. A scraper cannot log in or refresh a JWT, so it
+ * authenticates with a static basic-auth user instead. API credentials are not accepted here: this chain has no JWT
+ * filter and its authentication manager only knows the scrape user.
+ */
+@Configuration
+@Order(1)
+public class MetricsSecurityConfig extends WebSecurityConfigurerAdapter {
+  static final String METRICS_ROLE = "METRICS";
+
+  // its own encoder: the scrape user does not depend on how API passwords are hashed
+  private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+  private final String username;
+
+  private final String password;
+
+  public MetricsSecurityConfig(@Value("${oc.app.metricsUsername:prometheus}") String username,
+      @Value("${oc.app.metricsPassword}") String password) {
+    this.username = username;
+    this.password = password;
+  }
+
+  @Override
+  protected void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
+    authenticationManagerBuilder.inMemoryAuthentication()
+      .passwordEncoder(passwordEncoder)
+      .withUser(username).password(passwordEncoder.encode(password)).roles(METRICS_ROLE);
+  }
+
+  @Override
+  protected void configure(HttpSecurity http) throws Exception {
+    http.antMatcher("/actuator/prometheus")
+      .csrf().disable()
+      .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
+      .httpBasic().and()
+      .authorizeRequests().anyRequest().hasRole(METRICS_ROLE);
+  }
+}
@@ -1,8 +1,6 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -10,34 +8,70 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Writes the 401 body straight to the response with a shared generator factory and pre-encoded field names.
+ * Expired-token storms can produce thousands of these per second, so logging is limited to one line per interval.
+ */
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
 
   private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
 
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final SerializedString STATUS = new SerializedString("status");
+  private static final SerializedString ERROR = new SerializedString("error");
+  private static final SerializedString UNAUTHORIZED = new SerializedString("Unauthorized");
+  private static final SerializedString MESSAGE = new SerializedString("message");
+  private static final SerializedString PATH = new SerializedString("path");
+
+  private final Counter unauthorizedCounter;
+
+  private final LogRateLimiter logRateLimiter;
+
+  public AuthEntryPointJwt(MeterRegistry meterRegistry,
+      @Value("${oc.app.unauthorizedLogIntervalMs:1000}") long logIntervalMs) {
+    this.unauthorizedCounter = Counter.builder("auth.unauthorized")
+        .description("Requests rejected with 401 by the JWT entry point")
+        .register(meterRegistry);
+    this.logRateLimiter = new LogRateLimiter(logIntervalMs);
+  }
+
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
+    unauthorizedCounter.increment();
+    long suppressed = logRateLimiter.tryAcquire();
+    if (suppressed != LogRateLimiter.SUPPRESS) {
+      logger.error("Unauthorized error: {} ({} similar suppressed)", authException.getMessage(), suppressed);
+    }
 
     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
 
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
-
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getOutputStream())) {
+      generator.writeStartObject();
+      generator.writeFieldName(STATUS);
+      generator.writeNumber(HttpServletResponse.SC_UNAUTHORIZED);
+      generator.writeFieldName(ERROR);
+      generator.writeString(UNAUTHORIZED);
+      generator.writeFieldName(MESSAGE);
+      generator.writeString(authException.getMessage());
+      generator.writeFieldName(PATH);
+      generator.writeString(request.getServletPath());
+      generator.writeEndObject();
+    }
   }
-
 }
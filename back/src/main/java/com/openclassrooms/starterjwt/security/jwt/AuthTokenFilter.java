@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,15 +18,36 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
+  public static final String CLAIMS_ATTRIBUTE = AuthTokenFilter.class.getName() + ".claims";
+
   @Autowired
   private JwtUtils jwtUtils;
 
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @Autowired
+  private TokenVersionService tokenVersionService;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Value("${oc.app.jwtStatelessAuth:false}")
+  private boolean statelessAuth;
+
+  @Value("${oc.app.jwtTokenVersionCheck:false}")
+  private boolean tokenVersionCheck;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
@@ -33,10 +55,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      Claims claims = jwt == null ? null : verifiedTokenCache.getValidatedClaims(jwt, jwtUtils::getValidatedClaims);
+      if (claims != null && !tokenRevocationList.isRevoked(claims.getId()) && hasCurrentTokenVersion(claims)) {
+        UserDetails userDetails = loadUserDetails(claims);
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -45,14 +66,36 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      logger.error("Cannot set user authentication", e);
     }
 
     filterChain.doFilter(request, response);
   }
 
+  private boolean hasCurrentTokenVersion(Claims claims) {
+    if (!tokenVersionCheck) {
+      return true;
+    }
+
+    Long userId = claims.get(JwtUtils.CLAIM_ID, Long.class);
+    return userId != null
+        && tokenVersionService.isCurrent(userId, claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Integer.class));
+  }
+
+  private UserDetails loadUserDetails(Claims claims) {
+    if (statelessAuth) {
+      UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+      if (userDetails != null) {
+        return userDetails;
+      }
+    }
+
+    return userDetailsService.loadUserByUsername(claims.getSubject());
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
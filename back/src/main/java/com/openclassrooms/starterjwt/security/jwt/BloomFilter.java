@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. Lock-free reads; concurrent puts are safe.
+ */
+final class BloomFilter {
+  private final AtomicLongArray bits;
+  private final int bitCount;
+  private final int hashCount;
+  private final int capacity;
+
+  BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    this.capacity = Math.max(1, expectedInsertions);
+    long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bitCount = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63));
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+    this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  void put(String value) {
+    long hash = hash64(value);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(hash1 + i * hash2);
+      long mask = 1L << bit;
+      long word;
+      do {
+        word = bits.get(bit >>> 6);
+      } while ((word & mask) == 0 && !bits.compareAndSet(bit >>> 6, word, word | mask));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash64(value);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(hash1 + i * hash2);
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int index(int combinedHash) {
+    return (combinedHash & Integer.MAX_VALUE) % bitCount;
+  }
+
+  // FNV-1a followed by the MurmurHash3 finalizer to spread the bits
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
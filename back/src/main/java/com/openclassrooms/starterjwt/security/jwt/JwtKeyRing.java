@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.impl.TextCodec;
+
+/**
+ * HS512 keys decoded once at startup, with a single shared parser (jjwt builds a new ObjectMapper per parser).
+ * New tokens are signed with the active key and name it in their "kid" header; tokens are verified with the key
+ * their kid names, so retired keys listed in oc.app.jwtVerificationKeys (kid:secret,...) stay valid until the
+ * tokens they signed expire. Tokens issued without a kid belong to the "default" key id.
+ */
+@Component
+public class JwtKeyRing {
+  static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS512;
+  static final String DEFAULT_KEY_ID = "default";
+
+  private final String activeKeyId;
+  private final Key signingKey;
+  private final Map<String, Key> verificationKeys;
+  private final JwtParser parser;
+
+  public JwtKeyRing(@Value("${oc.app.jwtSecret}") String secret,
+      @Value("${oc.app.jwtKeyId:" + DEFAULT_KEY_ID + "}") String activeKeyId,
+      @Value("${oc.app.jwtVerificationKeys:}") String verificationKeys) {
+    this.activeKeyId = activeKeyId;
+    this.signingKey = key(secret);
+
+    Map<String, Key> keys = new HashMap<>();
+    for (String entry : StringUtils.commaDelimitedListToStringArray(verificationKeys)) {
+      int separator = entry.indexOf(':');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("oc.app.jwtVerificationKeys entries must be kid:secret");
+      }
+      keys.put(entry.substring(0, separator).trim(), key(entry.substring(separator + 1).trim()));
+    }
+    keys.put(activeKeyId, signingKey);
+    this.verificationKeys = Collections.unmodifiableMap(keys);
+
+    // DefaultJwtParser only reads its configuration while parsing, so the instance is safe to share once built
+    this.parser = Jwts.parser().setSigningKeyResolver(new KeyIdResolver());
+  }
+
+  public JwtBuilder builder() {
+    return Jwts.builder()
+        .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
+        .signWith(ALGORITHM, signingKey);
+  }
+
+  public Jws<Claims> parse(String token) {
+    return parser.parseClaimsJws(token);
+  }
+
+  // Same bytes jjwt derives from a String secret, so tokens signed before the key ring still verify
+  private static Key key(String secret) {
+    return new SecretKeySpec(TextCodec.BASE64.decode(secret), ALGORITHM.getJcaName());
+  }
+
+  private class KeyIdResolver extends SigningKeyResolverAdapter {
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+      if (!ALGORITHM.getValue().equals(header.getAlgorithm())) {
+        throw new UnsupportedJwtException("Unexpected JWT algorithm " + header.getAlgorithm());
+      }
+
+      String keyId = header.getKeyId() != null ? header.getKeyId() : DEFAULT_KEY_ID;
+      Key key = verificationKeys.get(keyId);
+      if (key == null) {
+        throw new SignatureException("Unknown JWT key id " + keyId);
+      }
+      return key;
+    }
+  }
+}
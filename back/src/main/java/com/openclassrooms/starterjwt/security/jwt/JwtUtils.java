@@ -1,6 +1,8 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,49 +13,125 @@ import org.springframework.stereotype.Component;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Component
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-  @Value("${oc.app.jwtSecret}")
-  private String jwtSecret;
+  static final String CLAIM_ID = "id";
+  static final String CLAIM_FIRST_NAME = "firstName";
+  static final String CLAIM_LAST_NAME = "lastName";
+  static final String CLAIM_ADMIN = "admin";
+  static final String CLAIM_TOKEN_VERSION = "ver";
 
-  @Value("${oc.app.jwtExpirationMs}")
-  private int jwtExpirationMs;
+  private final JwtKeyRing keyRing;
+
+  private final Timer validTimer;
+  private final Timer expiredTimer;
+  private final Timer invalidTimer;
+
+  // expired tokens are routine and only logged at debug; the other rejections share one line per interval
+  private final LogRateLimiter logRateLimiter;
+
+  // 24h until the front rotates tokens through /api/auth/refresh; lower it (e.g. 15 min) for clients that do
+  @Value("${oc.app.accessTokenExpirationMs:86400000}")
+  private long accessTokenExpirationMs;
+
+  public JwtUtils(JwtKeyRing keyRing, MeterRegistry meterRegistry,
+      @Value("${oc.app.unauthorizedLogIntervalMs:1000}") long logIntervalMs) {
+    this.keyRing = keyRing;
+    this.logRateLimiter = new LogRateLimiter(logIntervalMs);
+    this.validTimer = validationTimer(meterRegistry, "valid");
+    this.expiredTimer = validationTimer(meterRegistry, "expired");
+    this.invalidTimer = validationTimer(meterRegistry, "invalid");
+  }
+
+  private static Timer validationTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("jwt.validation")
+        .description("Signature verification and parsing of bearer tokens")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
 
   public String generateJwtToken(Authentication authentication) {
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+    return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+  }
 
-    return Jwts.builder()
+  public String generateJwtToken(UserDetailsImpl userPrincipal) {
+    return keyRing.builder()
         .setSubject((userPrincipal.getUsername()))
+        .setId(UUID.randomUUID().toString())
+        .claim(CLAIM_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
+        .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
         .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setExpiration(new Date((new Date()).getTime() + accessTokenExpirationMs))
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return keyRing.parse(token).getBody().getSubject();
+  }
+
+  /**
+   * Rebuilds the principal from the identity claims of an already verified token,
+   * or returns null for tokens issued without them.
+   */
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Long id = claims.get(CLAIM_ID, Long.class);
+    if (id == null) {
+      return null;
+    }
+
+    return UserDetailsImpl
+        .builder()
+        .id(id)
+        .username(claims.getSubject())
+        .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+        .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+        .admin(claims.get(CLAIM_ADMIN, Boolean.class))
+        .tokenVersion(claims.get(CLAIM_TOKEN_VERSION, Integer.class))
+        .build();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return getValidatedClaims(authToken) != null;
+  }
+
+  public Claims getValidatedClaims(String authToken) {
+    long start = System.nanoTime();
+    Timer timer = invalidTimer;
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      Claims claims = keyRing.parse(authToken).getBody();
+      timer = validTimer;
+      return claims;
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      logRejection("Invalid JWT signature: {} ({} similar suppressed)", e);
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      logRejection("Invalid JWT token: {} ({} similar suppressed)", e);
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      timer = expiredTimer;
+      logger.debug("JWT token is expired: {}", e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      logRejection("JWT token is unsupported: {} ({} similar suppressed)", e);
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      logRejection("JWT claims string is empty: {} ({} similar suppressed)", e);
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
 
-    return false;
+    return null;
+  }
+
+  private void logRejection(String format, Exception e) {
+    long suppressed = logRateLimiter.tryAcquire();
+    if (suppressed != LogRateLimiter.SUPPRESS) {
+      logger.error(format, e.getMessage(), suppressed);
+    }
   }
 }
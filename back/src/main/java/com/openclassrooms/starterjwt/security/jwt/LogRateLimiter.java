@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one log line through per interval and counts the ones held back, so a flood of rejected tokens costs an
+ * atomic increment per request instead of a log event (which blocks once the async appender's queue is full).
+ */
+public class LogRateLimiter {
+  public static final long SUPPRESS = -1;
+
+  private final long intervalNanos;
+
+  private final AtomicLong nextLogAt = new AtomicLong(Long.MIN_VALUE);
+
+  private final AtomicLong suppressed = new AtomicLong();
+
+  public LogRateLimiter(long intervalMs) {
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+  }
+
+  /**
+   * Returns {@link #SUPPRESS} when the line must be dropped, otherwise how many were dropped since the last one.
+   */
+  public long tryAcquire() {
+    long now = System.nanoTime();
+    long next = nextLogAt.get();
+    if ((next == Long.MIN_VALUE || now - next >= 0) && nextLogAt.compareAndSet(next, now + intervalNanos)) {
+      return suppressed.getAndSet(0);
+    }
+    suppressed.incrementAndGet();
+    return SUPPRESS;
+  }
+}
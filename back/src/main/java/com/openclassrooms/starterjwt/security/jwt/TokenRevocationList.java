@@ -0,0 +1,143 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Revoked token ids, persisted in REVOKED_TOKENS and mirrored in memory. A Bloom filter answers the common
+ * "not revoked" case without touching the exact set; positives are confirmed against it. Refresh fetches rows
+ * above the highest id seen minus a trailing window, since ids are taken at insert time and a slow transaction can
+ * commit a lower id after a higher one has already been read; rows already known are skipped by jti. Entries are
+ * dropped once the token they revoke has expired.
+ */
+@Component
+public class TokenRevocationList {
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final TaskScheduler taskScheduler;
+
+  private final Duration refreshInterval;
+
+  private final int expectedTokens;
+
+  private final long rescanIds;
+
+  private final Map<String, Date> revoked = new ConcurrentHashMap<>();
+
+  private volatile BloomFilter filter;
+
+  private volatile long lastSeenId;
+
+  private ScheduledFuture<?> refreshTask;
+
+  TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+      TaskScheduler taskScheduler,
+      @Value("${oc.app.revocationRefreshMs:5000}") long refreshMs,
+      @Value("${oc.app.revocationExpectedTokens:100000}") int expectedTokens,
+      @Value("${oc.app.revocationRescanIds:1000}") long rescanIds) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.taskScheduler = taskScheduler;
+    this.refreshInterval = Duration.ofMillis(refreshMs);
+    this.expectedTokens = expectedTokens;
+    this.rescanIds = rescanIds;
+    this.filter = new BloomFilter(expectedTokens, FALSE_POSITIVE_RATE);
+  }
+
+  public boolean isRevoked(String jti) {
+    return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+  }
+
+  public void revoke(Claims claims) {
+    if (claims.getId() == null || claims.getExpiration() == null) {
+      return;
+    }
+
+    try {
+      revokedTokenRepository.save(RevokedToken.builder().jti(claims.getId()).expiresAt(claims.getExpiration()).build());
+    } catch (DataIntegrityViolationException e) {
+      // already revoked, possibly by another node
+    }
+    remember(claims.getId(), claims.getExpiration());
+  }
+
+  // Scheduled here rather than with @Scheduled so the bean, and its repository, stay lazily initialized
+  @PostConstruct
+  void start() {
+    refresh();
+    refreshTask = taskScheduler.scheduleWithFixedDelay(this::refresh, Instant.now().plus(refreshInterval), refreshInterval);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (refreshTask != null) {
+      refreshTask.cancel(false);
+    }
+  }
+
+  // Queries run outside the monitor so revoke() is never stuck behind a slow poll; only the merge is locked
+  void refresh() {
+    List<RevokedToken> recent =
+        revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(Math.max(0, lastSeenId - rescanIds));
+    merge(recent);
+
+    Date now = new Date();
+    if (purgeExpired(now)) {
+      revokedTokenRepository.deleteExpired(now);
+    }
+  }
+
+  int size() {
+    return revoked.size();
+  }
+
+  private synchronized void merge(List<RevokedToken> recent) {
+    for (RevokedToken token : recent) {
+      if (!revoked.containsKey(token.getJti())) {
+        remember(token.getJti(), token.getExpiresAt());
+      }
+      lastSeenId = Math.max(lastSeenId, token.getId());
+    }
+  }
+
+  private synchronized boolean purgeExpired(Date now) {
+    if (!revoked.values().removeIf(expiresAt -> expiresAt.before(now))) {
+      return false;
+    }
+    rebuildFilter();
+    return true;
+  }
+
+  private synchronized void remember(String jti, Date expiresAt) {
+    revoked.put(jti, expiresAt);
+    filter.put(jti);
+    if (revoked.size() > filter.capacity()) {
+      rebuildFilter();
+    }
+  }
+
+  private synchronized void rebuildFilter() {
+    BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2), FALSE_POSITIVE_RATE);
+    revoked.keySet().forEach(rebuilt::put);
+    filter = rebuilt;
+  }
+}
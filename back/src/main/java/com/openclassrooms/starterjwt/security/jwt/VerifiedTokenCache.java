@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Bounded cache of recently verified tokens, keyed by a SHA-256 hash of the token.
+ * Each entry is evicted when the token itself expires, so a cached token is never trusted past its exp claim.
+ */
+@Component
+public class VerifiedTokenCache {
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private final Cache<String, Claims> cache;
+
+  public VerifiedTokenCache(@Value("${oc.app.jwtCacheMaxSize:10000}") long maximumSize) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new UntilTokenExpiration())
+        .build();
+  }
+
+  public Claims getValidatedClaims(String token, Function<String, Claims> verifier) {
+    String key = hash(token);
+    Claims claims = cache.getIfPresent(key);
+    if (claims != null) {
+      return claims;
+    }
+
+    claims = verifier.apply(token);
+    if (claims != null && claims.getExpiration() != null
+        && claims.getExpiration().getTime() > System.currentTimeMillis()) {
+      cache.put(key, claims);
+    }
+
+    return claims;
+  }
+
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  private static String hash(String token) {
+    byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    return Base64.getEncoder().encodeToString(digest);
+  }
+
+  private static class UntilTokenExpiration implements Expiry<String, Claims> {
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+      Date expiration = claims.getExpiration();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, claims, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
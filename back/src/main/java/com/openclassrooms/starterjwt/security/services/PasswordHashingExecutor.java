@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool with a bounded queue, handing back a future so
+ * request threads are released while BCrypt runs. When both are full the call fails fast with a 503.
+ */
+@Component
+public class PasswordHashingExecutor {
+  private final ThreadPoolExecutor executor;
+
+  public PasswordHashingExecutor(@Value("${oc.app.passwordHashingThreads:0}") int threads,
+      @Value("${oc.app.passwordHashingQueueCapacity:64}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+  }
+
+  /**
+   * Queues the task and returns at once; the caller's thread is not held while BCrypt runs. Anything chained with
+   * the non-async {@code then*} methods runs on the hashing thread too, so keep it short.
+   */
+  public <T> CompletableFuture<T> submit(Callable<T> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          result.complete(task.call());
+        } catch (RuntimeException | Error e) {
+          result.completeExceptionally(e);
+        } catch (Exception e) {
+          result.completeExceptionally(new IllegalStateException(e));
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException();
+    }
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  private static class HashingThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+/**
+ * Checks the token version claim against the user's current one. Versions are cached per user id
+ * for a short TTL, so a revocation becomes visible on other nodes within that delay.
+ */
+@Service
+public class TokenVersionService {
+  private final UserRepository userRepository;
+
+  private final Cache<Long, Integer> versions;
+
+  TokenVersionService(UserRepository userRepository,
+      @Value("${oc.app.jwtTokenVersionCacheMaxSize:10000}") long maximumSize,
+      @Value("${oc.app.jwtTokenVersionCacheTtlMs:30000}") long ttlMs) {
+    this.userRepository = userRepository;
+    this.versions = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .build();
+  }
+
+  public boolean isCurrent(Long userId, Integer tokenVersion) {
+    if (tokenVersion == null) {
+      return false;
+    }
+
+    Integer current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(null));
+    return tokenVersion.equals(current);
+  }
+
+  public void evict(Long userId) {
+    versions.invalidate(userId);
+  }
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, TTL-based cache of {@link UserDetailsImpl} keyed by email, so authenticated requests
+ * do not hit the database on every call. Hit/miss counts are published as "cache.*" meters tagged cache=userDetails.
+ */
+@Component
+public class UserDetailsCache {
+  private final Cache<String, UserDetailsImpl> cache;
+
+  public UserDetailsCache(@Value("${oc.app.userDetailsCacheMaxSize:10000}") long maximumSize,
+      @Value("${oc.app.userDetailsCacheTtlMs:300000}") long ttlMs,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+  }
+
+  public UserDetailsImpl get(String email, Function<String, UserDetailsImpl> loader) {
+    return cache.get(email, loader);
+  }
+
+  public void evict(String email) {
+    cache.invalidate(email);
+  }
+
+  public void evictById(Long id) {
+    cache.asMap().values().removeIf(userDetails -> id.equals(userDetails.getId()));
+  }
+}
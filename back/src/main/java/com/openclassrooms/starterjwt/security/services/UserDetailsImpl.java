@@ -8,6 +8,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.openclassrooms.starterjwt.models.User;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,9 +30,24 @@ public class UserDetailsImpl implements UserDetails {
 
   private Boolean admin;
 
+  private Integer tokenVersion;
+
   @JsonIgnore
   private String password;  
   
+  public static UserDetailsImpl build(User user) {
+    return UserDetailsImpl
+            .builder()
+            .id(user.getId())
+            .username(user.getEmail())
+            .lastName(user.getLastName())
+            .firstName(user.getFirstName())
+            .admin(user.isAdmin())
+            .tokenVersion(user.getTokenVersion())
+            .password(user.getPassword())
+            .build();
+  }
+
   public Collection<? extends GrantedAuthority> getAuthorities() {        
       return new HashSet<GrantedAuthority>();
   }
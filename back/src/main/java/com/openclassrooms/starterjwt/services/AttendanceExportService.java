@@ -0,0 +1,192 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams one row per session participant straight from a forward-only result set to the response, so heap usage
+ * does not depend on the number of rows. On MySQL the fetch size only streams with useCursorFetch=true on the URL.
+ */
+@Service
+@Log4j2
+public class AttendanceExportService {
+    static final String[] COLUMNS = {"session_id", "session_name", "session_date", "teacher_id",
+            "teacher_first_name", "teacher_last_name", "user_id", "user_first_name", "user_last_name"};
+
+    // driven by the PARTICIPATE primary key, so the database can return rows in order without sorting them
+    static final String QUERY = "SELECT p.session_id, s.name, s.date, t.id, t.first_name, t.last_name, "
+            + "p.user_id, u.first_name, u.last_name "
+            + "FROM PARTICIPATE p "
+            + "JOIN SESSIONS s ON s.id = p.session_id "
+            + "JOIN USERS u ON u.id = p.user_id "
+            + "LEFT JOIN TEACHERS t ON t.id = s.teacher_id "
+            + "ORDER BY p.session_id, p.user_id";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceExportService(DataSource dataSource, @Value("${oc.app.exportFetchSize:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Writes every participation to {@code out} and returns the number of rows written. The stream is flushed,
+     * not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = format == Format.NDJSON ? exportNdjson(out) : exportCsv(out);
+
+        log.info("Exported {} attendance rows as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            long rows = stream(rs -> {
+                json.writeStartObject();
+                json.writeNumberField(COLUMNS[0], rs.getLong(1));
+                json.writeStringField(COLUMNS[1], rs.getString(2));
+                json.writeStringField(COLUMNS[2], iso(rs.getTimestamp(3)));
+                writeNullableNumber(json, COLUMNS[3], rs.getLong(4), rs.wasNull());
+                json.writeStringField(COLUMNS[4], rs.getString(5));
+                json.writeStringField(COLUMNS[5], rs.getString(6));
+                json.writeNumberField(COLUMNS[6], rs.getLong(7));
+                json.writeStringField(COLUMNS[7], rs.getString(8));
+                json.writeStringField(COLUMNS[8], rs.getString(9));
+                json.writeEndObject();
+            });
+            if (rows > 0) {
+                json.writeRaw('\n');
+            }
+            return rows;
+        }
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        csv.write(String.join(",", COLUMNS));
+        csv.write("\r\n");
+        long rows = stream(rs -> {
+            long teacherId = rs.getLong(4);
+            String teacher = rs.wasNull() ? "" : Long.toString(teacherId);
+            csv.write(Long.toString(rs.getLong(1)));
+            csv.write(',');
+            csv.write(csvField(rs.getString(2)));
+            csv.write(',');
+            csv.write(csvField(iso(rs.getTimestamp(3))));
+            csv.write(',');
+            csv.write(teacher);
+            csv.write(',');
+            csv.write(csvField(rs.getString(5)));
+            csv.write(',');
+            csv.write(csvField(rs.getString(6)));
+            csv.write(',');
+            csv.write(Long.toString(rs.getLong(7)));
+            csv.write(',');
+            csv.write(csvField(rs.getString(8)));
+            csv.write(',');
+            csv.write(csvField(rs.getString(9)));
+            csv.write("\r\n");
+        });
+        csv.flush();
+        return rows;
+    }
+
+    private long stream(RowWriter rowWriter) {
+        long[] rows = {0};
+        RowCallbackHandler handler = rs -> {
+            try {
+                rowWriter.write(rs);
+                rows[0]++;
+            } catch (IOException e) {
+                // usually the client went away: abandon the result set instead of reading it to the end
+                throw new UncheckedIOException(e);
+            }
+        };
+        this.jdbcTemplate.query(QUERY, handler);
+        return rows[0];
+    }
+
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+
+        // spreadsheets evaluate cells starting with these characters as formulas
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String iso(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, long value, boolean isNull) throws IOException {
+        if (isNull) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+@Service
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final long refreshTokenExpirationMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            @Value("${oc.app.refreshTokenExpirationMs:604800000}") long refreshTokenExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+    }
+
+    @Transactional
+    public String create(Long userId) {
+        Date now = new Date();
+        this.refreshTokenRepository.deleteExpiredByUserId(userId, now);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        this.refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .user(this.userRepository.getById(userId))
+                .expiresAt(new Date(now.getTime() + this.refreshTokenExpirationMs))
+                .build());
+        return token;
+    }
+
+    /**
+     * Consumes the refresh token and issues its replacement. Empty when the token is unknown, expired
+     * or was concurrently rotated by another request.
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        RefreshToken current = this.refreshTokenRepository.findByTokenHash(hash(token)).orElse(null);
+        if (current == null || this.refreshTokenRepository.deleteOne(current.getId()) == 0
+                || current.getExpiresAt().before(new Date())) {
+            return Optional.empty();
+        }
+
+        User user = current.getUser();
+        return Optional.of(new Rotation(user, create(user.getId())));
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        this.refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rotation {
+        private final User user;
+        private final String refreshToken;
+    }
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.dto.ETags;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Mapped {@link SessionDto} results for GET /api/session and GET /api/session/{id}.
+ * The full catalog is keyed by a version that every session write bumps once its transaction commits, so a rebuild
+ * racing with a write can only ever land under a version nobody reads any more. Concurrent misses on the same key
+ * wait for a single load. Each entry carries the strong ETag of its representation, computed once per load so
+ * conditional requests are answered without mapping or serializing anything. Hit/miss counts are published as "cache.*" meters tagged cache=sessionCatalog and
+ * cache=sessions, rebuild time as "session.catalog.rebuild".
+ */
+@Component
+public class SessionCatalogCache {
+    private final AtomicLong version = new AtomicLong();
+
+    private final Cache<Long, Tagged<List<SessionDto>>> catalog;
+
+    private final Cache<Long, Tagged<SessionDto>> sessions;
+
+    private final Timer rebuildTimer;
+
+    public SessionCatalogCache(@Value("${oc.app.sessionCacheMaxSize:10000}") long maximumSize,
+            @Value("${oc.app.sessionCacheTtlMs:600000}") long ttlMs,
+            MeterRegistry meterRegistry) {
+        // the current version plus one still being served to readers that started before the last write
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.catalog, "sessionCatalog");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.sessions, "sessions");
+        this.rebuildTimer = Timer.builder("session.catalog.rebuild")
+                .description("Time spent loading and mapping the session catalog on a cache miss")
+                .register(meterRegistry);
+    }
+
+    public Tagged<List<SessionDto>> getAll(Supplier<List<SessionDto>> loader) {
+        return this.catalog.get(this.version.get(), currentVersion -> this.rebuildTimer.record(() -> {
+            List<SessionDto> sessionDtos = Collections.unmodifiableList(loader.get());
+            return new Tagged<>(sessionDtos, ETags.ofSessions(sessionDtos));
+        }));
+    }
+
+    /**
+     * Returns null, without caching it, when the loader finds no session.
+     */
+    public Tagged<SessionDto> get(Long id, Function<Long, SessionDto> loader) {
+        return this.sessions.get(id, sessionId -> {
+            SessionDto sessionDto = loader.apply(sessionId);
+            return sessionDto == null ? null : new Tagged<>(sessionDto, ETags.ofSession(sessionDto));
+        });
+    }
+
+    /**
+     * Drops the session and the catalog once the surrounding transaction commits, or immediately outside one.
+     * Evicting before the commit would let a concurrent miss cache the pre-write state again.
+     */
+    public void evict(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                doEvict(id);
+            }
+        });
+    }
+
+    private void doEvict(Long id) {
+        this.version.incrementAndGet();
+        if (id != null) {
+            this.sessions.invalidate(id);
+        }
+    }
+
+    public static final class Tagged<T> {
+        private final T value;
+
+        private final String eTag;
+
+        public Tagged(T value, String eTag) {
+            this.value = value;
+            this.eTag = eTag;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
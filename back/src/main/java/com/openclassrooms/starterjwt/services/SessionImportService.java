@@ -0,0 +1,250 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse.RowError;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a JSON array or NDJSON stream of {@link SessionDto} chunk by chunk: each chunk is validated, its teachers and
+ * users are resolved with one query each, and its sessions and participations are inserted as two JDBC batches in one
+ * transaction. Session ids are reserved from ID_GENERATORS, the table Hibernate's generator uses, so imported rows
+ * never collide with sessions created through JPA. Invalid rows are reported and skipped; committed chunks stay
+ * committed if a later one fails.
+ */
+@Service
+@Log4j2
+public class SessionImportService {
+    static final String INSERT_SESSION = "INSERT INTO SESSIONS (id, name, description, date, teacher_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_PARTICIPANT = "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)";
+
+    // the block Session's pooled-lo generator draws from: next_val is the last id handed out
+    static final String RESERVE_SESSION_IDS = "UPDATE ID_GENERATORS SET next_val = next_val + ? WHERE sequence_name = 'SESSIONS'";
+
+    static final String LAST_SESSION_ID = "SELECT next_val FROM ID_GENERATORS WHERE sequence_name = 'SESSIONS'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate idTransactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectReader reader;
+
+    private final SessionCatalogCache sessionCatalogCache;
+
+    private final int chunkSize;
+
+    public SessionImportService(DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            ObjectMapper objectMapper,
+            SessionCatalogCache sessionCatalogCache,
+            @Value("${oc.app.importChunkSize:1000}") int chunkSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.idTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(SessionDto.class);
+        this.sessionCatalogCache = sessionCatalogCache;
+        this.chunkSize = chunkSize;
+    }
+
+    public SessionImportResponse importSessions(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        List<RowError> errors = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(this.chunkSize);
+        long imported = 0;
+        int index = 0;
+
+        try (MappingIterator<SessionDto> sessionDtos = this.reader.readValues(in)) {
+            while (true) {
+                try {
+                    if (!sessionDtos.hasNextValue()) {
+                        break;
+                    }
+                    chunk.add(new Row(index, sessionDtos.nextValue()));
+                } catch (JsonParseException e) {
+                    // the stream itself is broken: nothing after this point can be read reliably
+                    errors.add(new RowError(index, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    errors.add(new RowError(index, "Invalid value: " + e.getOriginalMessage()));
+                }
+                index++;
+
+                if (chunk.size() == this.chunkSize) {
+                    imported += importChunk(chunk, errors);
+                    chunk.clear();
+                }
+            }
+        }
+        imported += importChunk(chunk, errors);
+
+        errors.sort((first, second) -> Integer.compare(first.getRow(), second.getRow()));
+        log.info("Imported {} sessions, rejected {} rows in {} ms", imported, errors.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new SessionImportResponse(imported, errors);
+    }
+
+    private int importChunk(List<Row> chunk, List<RowError> errors) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Set<ConstraintViolation<SessionDto>> violations = this.validator.validate(row.sessionDto);
+            if (violations.isEmpty()) {
+                valid.add(row);
+            } else {
+                errors.add(new RowError(row.index, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))));
+            }
+        }
+
+        Set<Long> teacherIds = existingIds("SELECT id FROM TEACHERS WHERE id IN (:ids)",
+                valid.stream().map(row -> row.sessionDto.getTeacher_id()).collect(Collectors.toSet()));
+        Set<Long> userIds = existingIds("SELECT id FROM USERS WHERE id IN (:ids)",
+                valid.stream().flatMap(row -> row.userIds().stream()).collect(Collectors.toSet()));
+
+        List<Row> resolved = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            List<Long> missingUserIds = row.userIds().stream().filter(id -> !userIds.contains(id)).collect(Collectors.toList());
+            if (!teacherIds.contains(row.sessionDto.getTeacher_id())) {
+                errors.add(new RowError(row.index, "Unknown teacher id: " + row.sessionDto.getTeacher_id()));
+            } else if (!missingUserIds.isEmpty()) {
+                errors.add(new RowError(row.index, "Unknown user ids: " + missingUserIds));
+            } else {
+                resolved.add(row);
+            }
+        }
+
+        if (resolved.isEmpty()) {
+            return 0;
+        }
+
+        long id = reserveSessionIds(resolved.size());
+        for (Row row : resolved) {
+            row.id = id++;
+        }
+
+        try {
+            insertInTransaction(resolved);
+            return resolved.size();
+        } catch (DataAccessException e) {
+            // something the checks above cannot see (a column limit, a concurrent delete): find the culprits one by one
+            log.warn("Batch of {} sessions rejected, retrying row by row: {}", resolved.size(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            int imported = 0;
+            for (Row row : resolved) {
+                try {
+                    insertInTransaction(Collections.singletonList(row));
+                    imported++;
+                } catch (DataAccessException rowException) {
+                    errors.add(new RowError(row.index, "Rejected by the database: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowException).getMessage()));
+                }
+            }
+            return imported;
+        }
+    }
+
+    private Set<Long> existingIds(String query, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(this.namedParameterJdbcTemplate.queryForList(query,
+                Collections.singletonMap("ids", ids), Long.class));
+    }
+
+    private long reserveSessionIds(int count) {
+        // a short transaction of its own, like Hibernate's generator, so the counter row is not locked for a whole chunk
+        Long lastId = this.idTransactionTemplate.execute(status -> {
+            if (this.jdbcTemplate.update(RESERVE_SESSION_IDS, count) != 1) {
+                throw new IllegalStateException("No SESSIONS row in ID_GENERATORS");
+            }
+            return this.jdbcTemplate.queryForObject(LAST_SESSION_ID, Long.class);
+        });
+        return lastId - count + 1;
+    }
+
+    private void insertInTransaction(List<Row> rows) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            insert(rows);
+            this.sessionCatalogCache.evict(null);
+        });
+    }
+
+    private void insert(List<Row> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> sessions = new ArrayList<>(rows.size());
+        List<Object[]> participants = new ArrayList<>();
+        for (Row row : rows) {
+            SessionDto sessionDto = row.sessionDto;
+            sessions.add(new Object[] {row.id, sessionDto.getName(), sessionDto.getDescription(),
+                    new Timestamp(sessionDto.getDate().getTime()), sessionDto.getTeacher_id(), now, now});
+            for (Long userId : row.userIds()) {
+                participants.add(new Object[] {row.id, userId});
+            }
+        }
+
+        this.jdbcTemplate.batchUpdate(INSERT_SESSION, sessions);
+        if (!participants.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_PARTICIPANT, participants);
+        }
+    }
+
+    private static final class Row {
+        private final int index;
+
+        private final SessionDto sessionDto;
+
+        private long id;
+
+        private Row(int index, SessionDto sessionDto) {
+            this.index = index;
+            this.sessionDto = sessionDto;
+        }
+
+        private List<Long> userIds() {
+            List<Long> users = this.sessionDto.getUsers();
+            return users == null ? Collections.emptyList() : users.stream().distinct().collect(Collectors.toList());
+        }
+    }
+}
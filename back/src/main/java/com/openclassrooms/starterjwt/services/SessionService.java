@@ -3,76 +3,128 @@ package com.openclassrooms.starterjwt.services;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
+    static final int PARTICIPANT_BATCH_SIZE = 1000;
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final SessionCatalogCache sessionCatalogCache;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+            SessionCatalogCache sessionCatalogCache) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.sessionCatalogCache = sessionCatalogCache;
     }
 
+    @Timed("service.invocations")
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        Session created = this.sessionRepository.save(session);
+        this.sessionCatalogCache.evict(created.getId());
+        return created;
     }
 
+    @Timed("service.invocations")
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.sessionCatalogCache.evict(id);
     }
 
+    @Timed("service.invocations")
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    @Timed("service.invocations")
+    public List<Session> findPage(SessionCursor after, int size) {
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return this.sessionRepository.findAllByOrderByDateAscIdAsc(page);
+        }
+
+        return this.sessionRepository.findPageAfter(after.getDate(), after.getId(), page);
+    }
+
+    @Timed("service.invocations")
+    public Map<Long, List<Long>> findParticipantIds(List<Session> sessions) {
+        List<Long> sessionIds = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+
+        for (int from = 0; from < sessionIds.size(); from += PARTICIPANT_BATCH_SIZE) {
+            List<Long> batch = sessionIds.subList(from, Math.min(from + PARTICIPANT_BATCH_SIZE, sessionIds.size()));
+            for (Object[] row : this.sessionRepository.findParticipantIds(batch)) {
+                participantIds
+                        .computeIfAbsent(((Number) row[0]).longValue(), sessionId -> new ArrayList<>())
+                        .add(((Number) row[1]).longValue());
+            }
+        }
+
+        return participantIds;
+    }
+
+    @Timed("service.invocations")
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    @Timed("service.invocations")
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        this.sessionCatalogCache.evict(id);
+        return updated;
     }
 
+    @Timed("service.invocations")
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
-        }
-
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+        try {
+            if (this.sessionRepository.addParticipant(id, userId) == 1) {
+                this.sessionCatalogCache.evict(id);
+                return;
+            }
+        } catch (DataIntegrityViolationException e) {
             throw new BadRequestException();
         }
 
-        session.getUsers().add(user);
+        if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
 
-        this.sessionRepository.save(session);
+        throw new BadRequestException();
     }
 
+    @Timed("service.invocations")
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
-            throw new NotFoundException();
+        if (this.sessionRepository.removeParticipant(id, userId) == 1) {
+            this.sessionCatalogCache.evict(id);
+            return;
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
-            throw new BadRequestException();
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
         }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
-
-        this.sessionRepository.save(session);
+        throw new BadRequestException();
     }
 }
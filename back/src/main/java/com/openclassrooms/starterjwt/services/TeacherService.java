@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,10 +15,12 @@ public class TeacherService {
         this.teacherRepository = teacherRepository;
     }
 
+    @Timed("service.invocations")
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    @Timed("service.invocations")
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
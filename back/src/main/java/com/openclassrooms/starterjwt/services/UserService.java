@@ -1,22 +1,62 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    private final TokenVersionService tokenVersionService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    public UserService(UserRepository userRepository,
+            UserDetailsCache userDetailsCache,
+            TokenVersionService tokenVersionService,
+            RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenVersionService = tokenVersionService;
+        this.refreshTokenService = refreshTokenService;
     }
 
+    @Timed("service.invocations")
     public void delete(Long id) {
         this.userRepository.deleteById(id);
+        this.userDetailsCache.evictById(id);
+        this.tokenVersionService.evict(id);
     }
 
+    @Timed("service.invocations")
+    @Transactional
+    public void revokeTokens(Long id) {
+        if (this.userRepository.incrementTokenVersion(id) == 0) {
+            throw new NotFoundException();
+        }
+        this.refreshTokenService.revokeAll(id);
+        this.userDetailsCache.evictById(id);
+        this.tokenVersionService.evict(id);
+    }
+
+    @Timed("service.invocations")
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    @Timed("service.invocations")
+    public List<User> findAllById(Collection<Long> ids) {
+        return this.userRepository.findAllById(ids);
+    }
 }
@@ -0,0 +1,34 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Drops AUTO_INCREMENT from the SESSIONS, TEACHERS and USERS ids, which now come only from ID_GENERATORS (V6). Left
+ * on, a plain insert took the next counter value, which could fall inside a block the generator had already handed
+ * out, and the collision only surfaced on a later JPA insert; now an insert that does not reserve its id fails at
+ * once. Written in Java because MySQL and H2 outside MySQL mode share no syntax for redefining a column.
+ */
+public class V7__DropAutoIncrement extends BaseJavaMigration {
+    private static final String[] TABLES = {"SESSIONS", "TEACHERS", "USERS"};
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        String alter = "MySQL".equals(connection.getMetaData().getDatabaseProductName())
+                ? "ALTER TABLE %s MODIFY id INT NOT NULL"
+                : "ALTER TABLE %s ALTER COLUMN id INT NOT NULL";
+
+        try (Statement statement = connection.createStatement()) {
+            // MySQL refuses to redefine a column referenced by foreign keys while the checks are on; the type is unchanged
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : TABLES) {
+                statement.execute(String.format(alter, table));
+            }
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- PARTICIPATE had no key: rebuild it without duplicate rows so the (session_id, user_id) primary key can be added.
+CREATE TABLE PARTICIPATE_DEDUPLICATED (
+  user_id INT NOT NULL,
+  session_id INT NOT NULL,
+  PRIMARY KEY (session_id, user_id)
+);
+
+INSERT INTO PARTICIPATE_DEDUPLICATED (session_id, user_id)
+SELECT DISTINCT session_id, user_id FROM PARTICIPATE
+WHERE session_id IS NOT NULL AND user_id IS NOT NULL;
+
+DROP TABLE PARTICIPATE;
+
+ALTER TABLE PARTICIPATE_DEDUPLICATED RENAME TO PARTICIPATE;
+
+CREATE INDEX IDX_PARTICIPATE_USER_SESSION ON PARTICIPATE (user_id, session_id);
+
+ALTER TABLE PARTICIPATE ADD CONSTRAINT FK_PARTICIPATE_SESSION FOREIGN KEY (session_id) REFERENCES SESSIONS (id);
+ALTER TABLE PARTICIPATE ADD CONSTRAINT FK_PARTICIPATE_USER FOREIGN KEY (user_id) REFERENCES USERS (id);
+
+-- Keyset pagination seeks and orders on (date, id).
+CREATE INDEX IDX_SESSIONS_DATE_ID ON SESSIONS (date, id);
@@ -0,0 +1,2 @@
+-- Per-user token version carried in issued JWTs; bumping it revokes every token issued before.
+ALTER TABLE USERS ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Revoked token ids (jti). Nodes poll rows by increasing id; rows are purged once the token itself has expired.
+CREATE TABLE REVOKED_TOKENS (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  jti VARCHAR(36) NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  CONSTRAINT UK_REVOKED_TOKENS_JTI UNIQUE (jti)
+);
+
+CREATE INDEX IDX_REVOKED_TOKENS_EXPIRES_AT ON REVOKED_TOKENS (expires_at);
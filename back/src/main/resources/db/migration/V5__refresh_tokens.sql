@@ -0,0 +1,10 @@
+-- Rotating refresh tokens, stored as SHA-256 hashes; each refresh is a single lookup on the unique hash.
+CREATE TABLE REFRESH_TOKENS (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  token_hash VARCHAR(44) NOT NULL,
+  user_id INT NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT UK_REFRESH_TOKENS_HASH UNIQUE (token_hash),
+  CONSTRAINT FK_REFRESH_TOKENS_USER FOREIGN KEY (user_id) REFERENCES USERS (id) ON DELETE CASCADE
+);
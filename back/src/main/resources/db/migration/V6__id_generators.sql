@@ -0,0 +1,12 @@
+-- Id blocks for Hibernate's pooled-lo table generator on SESSIONS, TEACHERS and USERS. Each row holds the last id
+-- handed out for its table, so the generator reserves 50 ids per round trip and inserts no longer need the IDENTITY
+-- read-back that prevents JDBC batching. V7 then drops AUTO_INCREMENT from the id columns, so anything inserting
+-- alongside the application must reserve its ids here (see SessionImportService).
+CREATE TABLE ID_GENERATORS (
+  sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'SESSIONS', COALESCE(MAX(id), 0) FROM SESSIONS;
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'TEACHERS', COALESCE(MAX(id), 0) FROM TEACHERS;
+INSERT INTO ID_GENERATORS (sequence_name, next_val) SELECT 'USERS', COALESCE(MAX(id), 0) FROM USERS;
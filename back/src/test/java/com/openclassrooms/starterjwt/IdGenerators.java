@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Reserves ids from ID_GENERATORS for fixtures that insert with plain SQL, the way SessionImportService does, so
+ * they never take an id the JPA generator has already handed out.
+ */
+public final class IdGenerators {
+
+    private IdGenerators() {
+    }
+
+    /** Returns the first of {@code count} consecutive ids reserved for {@code table}. */
+    public static long reserve(JdbcTemplate jdbcTemplate, String table, int count) {
+        jdbcTemplate.update("UPDATE ID_GENERATORS SET next_val = next_val + ? WHERE sequence_name = ?", count, table);
+        return jdbcTemplate.queryForObject("SELECT next_val FROM ID_GENERATORS WHERE sequence_name = ?", Long.class, table)
+            - count + 1;
+    }
+}
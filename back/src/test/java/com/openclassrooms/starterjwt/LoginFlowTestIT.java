@@ -0,0 +1,217 @@
+package com.openclassrooms.starterjwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+
+import io.jsonwebtoken.Claims;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.NoOpQueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:logindb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "oc.app.accessTokenExpirationMs=900000"
+})
+class LoginFlowTestIT {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private final List<String> executedQueries = new CopyOnWriteArrayList<>();
+
+    private final QueryExecutionListener queryRecorder = new NoOpQueryExecutionListener() {
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queryInfoList.forEach(queryInfo -> executedQueries.add(queryInfo.getQuery()));
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        // HttpURLConnection cannot read a 401 answer to a streamed POST body
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setOutputStreaming(false);
+        restTemplate.getRestTemplate().setRequestFactory(requestFactory);
+
+        // the application DataSource is wrapped by DataSourceProxyConfig; listen to what reaches the driver
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().addListener(queryRecorder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().getListeners().remove(queryRecorder);
+    }
+
+    @Test
+    void login_shouldIssueTokens_whenCredentialsValid() {
+        // WHEN
+        ResponseEntity<JwtResponse> response = restTemplate.postForEntity("/api/auth/login",
+            login("yoga@studio.com", "test!1234"), JwtResponse.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody().getToken());
+        assertNotNull(response.getBody().getRefreshToken());
+    }
+
+    @Test
+    void login_shouldReturnUnauthorized_whenPasswordWrong() {
+        // WHEN
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/auth/login",
+            login("yoga@studio.com", "wrong"), String.class);
+
+        // THEN
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    @Test
+    void register_shouldStoreHashedPasswordUsableForLogin() {
+        // GIVEN
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("flow@studio.com");
+        signupRequest.setFirstName("Flow");
+        signupRequest.setLastName("Test");
+        signupRequest.setPassword("flow!1234");
+
+        // WHEN
+        ResponseEntity<String> registered = restTemplate.postForEntity("/api/auth/register", signupRequest, String.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, registered.getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/api/auth/login",
+            login("flow@studio.com", "flow!1234"), JwtResponse.class).getStatusCode());
+    }
+
+    @Test
+    void login_shouldLoadTheUserWithASingleSelect() {
+        // GIVEN
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("count@studio.com");
+        signupRequest.setFirstName("Count");
+        signupRequest.setLastName("Test");
+        signupRequest.setPassword("count!1234");
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/api/auth/register", signupRequest, String.class)
+            .getStatusCode());
+        executedQueries.clear();
+
+        // WHEN
+        ResponseEntity<JwtResponse> response = restTemplate.postForEntity("/api/auth/login",
+            login("count@studio.com", "count!1234"), JwtResponse.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("count@studio.com", response.getBody().getUsername());
+        // background pollers (e.g. the revocation list refresh) may run meanwhile; only reads of USERS count
+        List<String> userSelects = executedQueries.stream()
+            .filter(query -> query.trim().toLowerCase().startsWith("select"))
+            .filter(query -> query.contains(" from USERS "))
+            .collect(Collectors.toList());
+        assertEquals(1, userSelects.size(), "selects on USERS: " + userSelects);
+    }
+
+    @Test
+    void loginAndRefresh_shouldIssueAccessTokensWithTheConfiguredLifetime() {
+        // GIVEN
+        ResponseEntity<JwtResponse> loggedIn = restTemplate.postForEntity("/api/auth/login",
+            login("yoga@studio.com", "test!1234"), JwtResponse.class);
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken(loggedIn.getBody().getRefreshToken());
+
+        // WHEN
+        ResponseEntity<JwtResponse> refreshed = restTemplate.postForEntity("/api/auth/refresh", refreshRequest,
+            JwtResponse.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, refreshed.getStatusCode());
+        assertEquals(15 * 60, lifetimeSeconds(loggedIn.getBody().getToken()), 1);
+        assertEquals(15 * 60, lifetimeSeconds(refreshed.getBody().getToken()), 1);
+    }
+
+    @Test
+    void revokeTokens_shouldLogOutEverySessionOfTheUser() {
+        // GIVEN
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("revoke@studio.com");
+        signupRequest.setFirstName("Revoke");
+        signupRequest.setLastName("Test");
+        signupRequest.setPassword("revoke!1234");
+        restTemplate.postForEntity("/api/auth/register", signupRequest, String.class);
+        JwtResponse laptop = restTemplate.postForObject("/api/auth/login",
+            login("revoke@studio.com", "revoke!1234"), JwtResponse.class);
+        JwtResponse phone = restTemplate.postForObject("/api/auth/login",
+            login("revoke@studio.com", "revoke!1234"), JwtResponse.class);
+        assertEquals(HttpStatus.OK, get("/api/teacher", phone.getToken()).getStatusCode());
+
+        // WHEN
+        ResponseEntity<String> revoked = restTemplate.exchange("/api/user/" + laptop.getId() + "/revoke-tokens",
+            HttpMethod.POST, new HttpEntity<>(bearer(laptop.getToken())), String.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, revoked.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, get("/api/teacher", phone.getToken()).getStatusCode());
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken(phone.getRefreshToken());
+        assertEquals(HttpStatus.UNAUTHORIZED,
+            restTemplate.postForEntity("/api/auth/refresh", refreshRequest, String.class).getStatusCode());
+    }
+
+    private ResponseEntity<String> get(String path, String token) {
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(bearer(token)), String.class);
+    }
+
+    private static HttpHeaders bearer(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+
+    private long lifetimeSeconds(String token) {
+        Claims claims = jwtUtils.getValidatedClaims(token);
+        return (claims.getExpiration().getTime() - claims.getIssuedAt().getTime()) / 1000;
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+        return loginRequest;
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.starterjwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+
+/**
+ * Read latency on /api/teacher while a burst of logins hammers BCrypt. Opt-in: mvn -Pload-test test
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:loaddb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "server.tomcat.threads.max=16",
+    "oc.app.passwordHashingThreads=1",
+    "oc.app.passwordHashingQueueCapacity=4"
+})
+class LoginStormLoadTest {
+
+    private static final int READS = 50;
+    private static final int STORM_CLIENTS = 48;
+    private static final long RETRY_DELAY_MS = 100;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void readLatency_shouldStayFlat_duringLoginStorm() throws Exception {
+        // GIVEN
+        HttpEntity<Void> read = bearer(login().getBody().getToken());
+        measureReads(read);
+        long baselineP95 = percentile(measureReads(read), 95);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_CLIENTS);
+        List<Future<?>> clients = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < STORM_CLIENTS; i++) {
+            clients.add(storm.submit(() -> {
+                while (!stop.get()) {
+                    if (login().getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+                        rejected.incrementAndGet();
+                        Thread.sleep(RETRY_DELAY_MS);
+                    } else {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        while (rejected.get() < STORM_CLIENTS) {
+            Thread.sleep(10);
+        }
+        long stormP95 = percentile(measureReads(read), 95);
+        stop.set(true);
+        for (Future<?> client : clients) {
+            client.get();
+        }
+        storm.shutdown();
+
+        // THEN
+        System.out.printf("read p95 baseline=%dms storm=%dms, logins accepted=%d rejected=%d%n",
+            baselineP95, stormP95, accepted.get(), rejected.get());
+        assertTrue(accepted.get() > 0);
+        assertTrue(rejected.get() > 0);
+        assumeTrue(Runtime.getRuntime().availableProcessors() > 1,
+            "hashing threads and request threads share the only core");
+        assertTrue(stormP95 <= Math.max(baselineP95 * 3, baselineP95 + 100));
+    }
+
+    private ResponseEntity<JwtResponse> login() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("yoga@studio.com");
+        request.setPassword("test!1234");
+        return restTemplate.postForEntity("/api/auth/login", request, JwtResponse.class);
+    }
+
+    private HttpEntity<Void> bearer(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return new HttpEntity<>(headers);
+    }
+
+    private List<Long> measureReads(HttpEntity<Void> read) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < READS; i++) {
+            long start = System.nanoTime();
+            ResponseEntity<String> response = restTemplate.exchange("/api/teacher", HttpMethod.GET, read, String.class);
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+        }
+        return latencies;
+    }
+
+    private static long percentile(List<Long> values, int percentile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+}
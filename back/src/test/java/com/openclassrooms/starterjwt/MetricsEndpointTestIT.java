@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:metricsdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class MetricsEndpointTestIT {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheus_shouldExposeRequestServiceRepositoryJwtAndPoolMeters() {
+        // GIVEN
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        String token = restTemplate.postForObject("/api/auth/login", loginRequest, JwtResponse.class).getToken();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        ResponseEntity<String> teachers = restTemplate.exchange("/api/teacher", HttpMethod.GET,
+            new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, teachers.getStatusCode());
+
+        // WHEN
+        ResponseEntity<String> scrape = restTemplate.withBasicAuth("prometheus", "prometheus")
+            .getForEntity("/actuator/prometheus", String.class);
+
+        // THEN
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String body = scrape.getBody();
+        assertTrue(body.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\","
+            + "outcome=\"SUCCESS\",status=\"200\",uri=\"/api/teacher\""));
+        assertTrue(body.contains("service_invocations_seconds_count{class=\"com.openclassrooms.starterjwt.services.TeacherService\","
+            + "exception=\"none\",method=\"findAll\""));
+        assertTrue(body.contains("spring_data_repository_invocations_seconds_count{exception=\"None\",method=\"findAll\","
+            + "repository=\"TeacherRepository\""));
+        assertTrue(body.contains("jwt_validation_seconds_count{outcome=\"valid\""));
+        assertTrue(body.contains("hikaricp_connections_active{"));
+        assertTrue(body.contains("hibernate_second_level_cache_requests_total{"));
+    }
+
+    @Test
+    void metrics_shouldStayBehindAuthentication() {
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.getForEntity("/actuator/metrics", String.class).getStatusCode());
+    }
+
+    @Test
+    void prometheus_shouldStayBehindAuthentication() {
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.withBasicAuth("prometheus", "wrong")
+            .getForEntity("/actuator/prometheus", String.class).getStatusCode());
+    }
+
+    @Test
+    void prometheus_shouldNotAcceptApiCredentials() {
+        // GIVEN
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        String token = restTemplate.postForObject("/api/auth/login", loginRequest, JwtResponse.class).getToken();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        // THEN
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.exchange("/actuator/prometheus", HttpMethod.GET,
+            new HttpEntity<>(headers), String.class).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.withBasicAuth("yoga@studio.com", "test!1234")
+            .getForEntity("/actuator/prometheus", String.class).getStatusCode());
+    }
+
+    @Test
+    void health_shouldStayPublic() {
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/health", String.class).getStatusCode());
+    }
+}
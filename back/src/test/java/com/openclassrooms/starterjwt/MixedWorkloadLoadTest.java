@@ -0,0 +1,275 @@
+package com.openclassrooms.starterjwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+
+/**
+ * Mixed login / browse / participate workload against the full app on an in-memory H2 database.
+ * Opt-in and offline: mvn -o -Pload-test test -Dtest=MixedWorkloadLoadTest
+ * Sizes and concurrency are system properties, e.g. -Dload.users=1000 -Dload.sessions=2000 -Dload.concurrency=32.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:mixeddb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class MixedWorkloadLoadTest {
+
+    private static final String PASSWORD = "test!1234";
+
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final int TEACHERS = Integer.getInteger("load.teachers", 10);
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 500);
+    private static final int PARTICIPANTS_PER_SESSION = Integer.getInteger("load.participantsPerSession", 5);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 8);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 20);
+
+    private enum Operation {
+        // weights out of 100; login is rare because every virtual user keeps its token
+        LOGIN(5), LIST_SESSIONS(35), GET_SESSION(40), PARTICIPATE(10), UNPARTICIPATE(10);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private List<Long> userIds;
+    private List<Long> sessionIds;
+
+    @BeforeEach
+    void seed() {
+        assertTrue(USERS >= CONCURRENCY + PARTICIPANTS_PER_SESSION,
+            "load.users must cover the virtual users plus the seeded participants");
+        String hash = passwordEncoder.encode(PASSWORD);
+
+        long firstUserId = IdGenerators.reserve(jdbcTemplate, "USERS", USERS);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[] {firstUserId + i, "load" + i + "@studio.com", "Load", "User" + i, hash});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO USERS (id, email, last_name, first_name, password) VALUES (?, ?, ?, ?, ?)", users);
+        userIds = jdbcTemplate.queryForList("SELECT id FROM USERS WHERE email LIKE 'load%' ORDER BY id", Long.class);
+
+        long firstTeacherId = IdGenerators.reserve(jdbcTemplate, "TEACHERS", TEACHERS);
+        List<Object[]> teachers = new ArrayList<>();
+        for (int i = 0; i < TEACHERS; i++) {
+            teachers.add(new Object[] {firstTeacherId + i, "Load", "Teacher" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO TEACHERS (id, last_name, first_name) VALUES (?, ?, ?)", teachers);
+        List<Long> teacherIds = jdbcTemplate.queryForList("SELECT id FROM TEACHERS ORDER BY id", Long.class);
+
+        long firstSessionId = IdGenerators.reserve(jdbcTemplate, "SESSIONS", SESSIONS);
+        List<Object[]> sessions = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(new Object[] {firstSessionId + i, "Load session " + i, "Seeded by MixedWorkloadLoadTest",
+                new Timestamp(now + TimeUnit.HOURS.toMillis(i)), teacherIds.get(i % teacherIds.size())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO SESSIONS (id, name, description, date, teacher_id) VALUES (?, ?, ?, ?, ?)", sessions);
+        sessionIds = jdbcTemplate.queryForList("SELECT id FROM SESSIONS ORDER BY id", Long.class);
+
+        // seeded participants come after the virtual users so participate/unparticipate never collide with them
+        List<Object[]> participations = new ArrayList<>();
+        for (int i = 0; i < sessionIds.size(); i++) {
+            for (int p = 0; p < PARTICIPANTS_PER_SESSION; p++) {
+                int user = CONCURRENCY + (i + p) % (USERS - CONCURRENCY);
+                participations.add(new Object[] {sessionIds.get(i), userIds.get(user)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", participations);
+    }
+
+    @Test
+    void mixedWorkload_shouldReportLatencyPerEndpoint() throws Exception {
+        // GIVEN
+        run(TimeUnit.SECONDS.toMillis(WARMUP_SECONDS));
+
+        // WHEN
+        long start = System.nanoTime();
+        Map<Operation, List<Long>> latencies = run(TimeUnit.SECONDS.toMillis(DURATION_SECONDS));
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        // THEN
+        System.out.printf("%d users, %d teachers, %d sessions, %d participants/session, %d clients, %ds%n",
+            USERS, TEACHERS, SESSIONS, PARTICIPANTS_PER_SESSION, CONCURRENCY, DURATION_SECONDS);
+        System.out.printf("%-14s %8s %9s %8s %8s %8s%n", "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        for (Operation operation : Operation.values()) {
+            List<Long> values = latencies.get(operation);
+            Collections.sort(values);
+            System.out.printf("%-14s %8d %9.1f %8.1f %8.1f %8.1f%n", operation, values.size(),
+                values.size() / elapsedSeconds, millis(values, 50), millis(values, 95), millis(values, 99));
+        }
+        assertTrue(latencies.get(Operation.GET_SESSION).size() > 0);
+    }
+
+    private Map<Operation, List<Long>> run(long durationMs) throws Exception {
+        Map<Operation, List<Long>> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, Collections.synchronizedList(new ArrayList<>()));
+        }
+        AtomicInteger failures = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + durationMs;
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            int client = i;
+            futures.add(clients.submit(() -> {
+                new VirtualUser(client, latencies, failures).runUntil(deadline);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+
+        assertEquals(0, failures.get(), "non-2xx responses during the run");
+        return latencies;
+    }
+
+    private static double millis(List<Long> sortedNanos, int percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        long nanos = sortedNanos.get(Math.min(sortedNanos.size() - 1, sortedNanos.size() * percentile / 100));
+        return nanos / 1e6;
+    }
+
+    private class VirtualUser {
+        private final String email;
+        private final Long userId;
+        private final Map<Operation, List<Long>> latencies;
+        private final AtomicInteger failures;
+        private final Set<Long> joined = new HashSet<>();
+        private HttpEntity<Void> authorized;
+
+        VirtualUser(int index, Map<Operation, List<Long>> latencies, AtomicInteger failures) {
+            this.email = "load" + index + "@studio.com";
+            this.userId = userIds.get(index);
+            this.latencies = latencies;
+            this.failures = failures;
+        }
+
+        void runUntil(long deadline) {
+            login();
+            while (System.currentTimeMillis() < deadline) {
+                switch (pick()) {
+                    case LOGIN:
+                        login();
+                        break;
+                    case LIST_SESSIONS:
+                        call(Operation.LIST_SESSIONS, HttpMethod.GET, "/api/session");
+                        break;
+                    case GET_SESSION:
+                        call(Operation.GET_SESSION, HttpMethod.GET, "/api/session/" + randomSession());
+                        break;
+                    case PARTICIPATE:
+                        Long session = randomSession();
+                        if (joined.add(session)) {
+                            call(Operation.PARTICIPATE, HttpMethod.POST, "/api/session/" + session + "/participate/" + userId);
+                        }
+                        break;
+                    case UNPARTICIPATE:
+                        if (!joined.isEmpty()) {
+                            Long left = joined.iterator().next();
+                            joined.remove(left);
+                            call(Operation.UNPARTICIPATE, HttpMethod.DELETE, "/api/session/" + left + "/participate/" + userId);
+                        }
+                        break;
+                }
+            }
+            for (Long session : joined) {
+                call(Operation.UNPARTICIPATE, HttpMethod.DELETE, "/api/session/" + session + "/participate/" + userId);
+            }
+        }
+
+        private void login() {
+            LoginRequest request = new LoginRequest();
+            request.setEmail(email);
+            request.setPassword(PASSWORD);
+
+            long start = System.nanoTime();
+            ResponseEntity<JwtResponse> response = restTemplate.postForEntity("/api/auth/login", request, JwtResponse.class);
+            record(Operation.LOGIN, start, response);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(response.getBody().getToken());
+            authorized = new HttpEntity<>(headers);
+        }
+
+        private void call(Operation operation, HttpMethod method, String path) {
+            long start = System.nanoTime();
+            record(operation, start, restTemplate.exchange(path, method, authorized, String.class));
+        }
+
+        private void record(Operation operation, long start, ResponseEntity<?> response) {
+            latencies.get(operation).add(System.nanoTime() - start);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                failures.incrementAndGet();
+            }
+        }
+
+        private Operation pick() {
+            int roll = ThreadLocalRandom.current().nextInt(100);
+            for (Operation operation : Operation.values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return Operation.GET_SESSION;
+        }
+
+        private Long randomSession() {
+            return sessionIds.get(ThreadLocalRandom.current().nextInt(sessionIds.size()));
+        }
+    }
+}
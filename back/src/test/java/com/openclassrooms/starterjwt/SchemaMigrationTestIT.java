@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrationdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SchemaMigrationTestIT {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_shouldApplyAllVersionedMigrations() {
+        // WHEN
+        String[] applied = Arrays.stream(flyway.info().applied())
+            .map(MigrationInfo::getVersion)
+            .map(Object::toString)
+            .toArray(String[]::new);
+
+        // THEN
+        assertArrayEquals(new String[] {"1", "2", "3", "4", "5", "6", "7"}, applied);
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void participate_shouldRejectDuplicateParticipation() {
+        // GIVEN
+        Long sessionId = insertSession();
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM USERS WHERE email = 'yoga@studio.com'", Long.class);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", sessionId, userId);
+
+        // THEN
+        assertThrows(DataIntegrityViolationException.class,
+            () -> jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", sessionId, userId));
+    }
+
+    @Test
+    void migrate_shouldCreateLookupIndexes() {
+        assertEquals(1, countIndexes("PARTICIPATE", "IDX_PARTICIPATE_USER_SESSION"));
+        assertEquals(1, countIndexes("SESSIONS", "IDX_SESSIONS_DATE_ID"));
+    }
+
+    @Test
+    void migrate_shouldSeedIdGeneratorsWithTheLastUsedIds() {
+        assertEquals(jdbcTemplate.queryForObject("SELECT MAX(id) FROM USERS", Long.class), lastUsedId("USERS"));
+        assertEquals(jdbcTemplate.queryForObject("SELECT MAX(id) FROM TEACHERS", Long.class), lastUsedId("TEACHERS"));
+        assertEquals(0L, lastUsedId("SESSIONS"));
+    }
+
+    @Test
+    void migrate_shouldLeaveIdAllocationToIdGenerators() {
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+            "INSERT INTO TEACHERS (first_name, last_name) VALUES ('No', 'Id')"));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+            "INSERT INTO USERS (email, last_name, first_name, password) VALUES ('no-id@studio.com', 'No', 'Id', 'pwd')"));
+    }
+
+    private Long lastUsedId(String table) {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM ID_GENERATORS WHERE sequence_name = ?", Long.class, table);
+    }
+
+    private Long insertSession() {
+        long id = IdGenerators.reserve(jdbcTemplate, "SESSIONS", 1);
+        jdbcTemplate.update("INSERT INTO SESSIONS (id, name, description, date, teacher_id) "
+            + "VALUES (?, 'Yoga', 'Session description', CURRENT_TIMESTAMP, (SELECT MIN(id) FROM TEACHERS))", id);
+        return id;
+    }
+
+    private int countIndexes(String table, String index) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = ? AND INDEX_NAME = ?",
+            Integer.class, table, index);
+    }
+}
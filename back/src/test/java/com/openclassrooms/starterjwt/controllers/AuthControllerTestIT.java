@@ -2,15 +2,24 @@ package com.openclassrooms.starterjwt.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,16 +34,25 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingExecutor;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.RefreshTokenService;
 
 @WebMvcTest(AuthController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -52,6 +70,15 @@ class AuthControllerTestIT {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
     @MockBean
     private PasswordEncoder passwordEncoder;
 
@@ -61,12 +88,34 @@ class AuthControllerTestIT {
     @MockBean
     private UserDetailsServiceImpl userDetailsService;
 
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
     @MockBean
     private AuthEntryPointJwt unauthorizedHandler;
 
     @MockBean
     private JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
+    @BeforeEach
+    void setUp() {
+        when(passwordHashingExecutor.submit(any())).thenAnswer(invocation -> {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            try {
+                future.complete(invocation.<Callable<?>>getArgument(0).call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        });
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
@@ -92,26 +141,33 @@ class AuthControllerTestIT {
 
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("jwt-token");
-        when(userRepository.findByEmail("test@test.com"))
-            .thenReturn(Optional.of(new User("test@test.com", "Nom", "Test", "pwd", true)));
+        when(refreshTokenService.create(1L)).thenReturn("refresh-token");
 
         // WHEN
-        mockMvc.perform(post("/api/auth/login")
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
-            // THEN
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.token").value("jwt-token"))
+            .andExpect(jsonPath("$.refreshToken").value("refresh-token"))
             .andExpect(jsonPath("$.type").value("Bearer"))
             .andExpect(jsonPath("$.id").value(1))
             .andExpect(jsonPath("$.username").value("test@test.com"))
             .andExpect(jsonPath("$.firstName").value("Test"))
             .andExpect(jsonPath("$.lastName").value("Nom"))
             .andExpect(jsonPath("$.admin").value(true));
+
+        verify(authenticationManager, times(1)).authenticate(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void authenticateUser_shouldReturnAdminFalse_whenUserMissing() throws Exception {
+    void authenticateUser_shouldReturnAdminFalse_whenPrincipalIsNotAdmin() throws Exception {
         // GIVEN
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("test@test.com");
@@ -130,15 +186,92 @@ class AuthControllerTestIT {
 
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("jwt-token");
-        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+
+        // WHEN
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.admin").value(false));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void authenticateUser_shouldReturnServiceUnavailable_whenHashingSaturated() throws Exception {
+        // GIVEN
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("password");
+
+        doThrow(new ServiceUnavailableException()).when(passwordHashingExecutor).submit(any());
 
         // WHEN
         mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
             // THEN
+            .andExpect(status().isServiceUnavailable());
+
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void refresh_shouldIssueNewTokens_whenRefreshTokenValid() throws Exception {
+        // GIVEN
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("refresh-token");
+
+        User user = new User("test@test.com", "Nom", "Test", "pwd", true);
+        user.setId(1L);
+
+        when(refreshTokenService.rotate("refresh-token"))
+            .thenReturn(Optional.of(new RefreshTokenService.Rotation(user, "next-refresh-token")));
+        when(jwtUtils.generateJwtToken(any(UserDetailsImpl.class))).thenReturn("jwt-token");
+
+        // WHEN
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+            // THEN
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.admin").value(false));
+            .andExpect(jsonPath("$.token").value("jwt-token"))
+            .andExpect(jsonPath("$.refreshToken").value("next-refresh-token"))
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.username").value("test@test.com"))
+            .andExpect(jsonPath("$.admin").value(true));
+
+        verifyNoInteractions(authenticationManager, passwordHashingExecutor);
+    }
+
+    @Test
+    void refresh_shouldReturnUnauthorized_whenRefreshTokenInvalid() throws Exception {
+        // GIVEN
+        RefreshRequest refreshRequest = new RefreshRequest();
+        refreshRequest.setRefreshToken("unknown");
+
+        when(refreshTokenService.rotate("unknown")).thenReturn(Optional.empty());
+
+        // WHEN
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+            // THEN
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("Error: Invalid refresh token"));
+    }
+
+    @Test
+    void refresh_shouldReturnBadRequest_whenRefreshTokenMissing() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -166,10 +299,14 @@ class AuthControllerTestIT {
         when(userRepository.existsByEmail("test@test.com")).thenReturn(true);
 
         // WHEN
-        mockMvc.perform(post("/api/auth/register")
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-            // THEN
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
     }
@@ -200,15 +337,20 @@ class AuthControllerTestIT {
         when(passwordEncoder.encode("password")).thenReturn("encoded");
 
         // WHEN
-        mockMvc.perform(post("/api/auth/register")
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-            // THEN
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.message").value("User registered successfully!"));
 
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(userCaptor.capture());
+        verify(userDetailsCache).evict("test@test.com");
         User savedUser = userCaptor.getValue();
         assertEquals("test@test.com", savedUser.getEmail());
         assertEquals("Nom", savedUser.getLastName());
@@ -0,0 +1,150 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.AttendanceExportService;
+
+@WebMvcTest(ExportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ExportControllerTestIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AttendanceExportService attendanceExportService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockBean
+    private AuthEntryPointJwt unauthorizedHandler;
+
+    @MockBean
+    private JwtUtils jwtUtils;
+
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
+    @MockBean
+    private JpaMetamodelMappingContext jpaMetamodelMappingContext;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void attendance_shouldStreamCsv_whenAdmin() throws Exception {
+        // GIVEN
+        authenticate(true);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("session_id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(attendanceExportService).export(eq(AttendanceExportService.Format.CSV), any());
+
+        // WHEN
+        MvcResult result = mockMvc.perform(get("/api/admin/export/attendance").param("format", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"attendance.csv\""))
+            .andExpect(content().string("session_id\r\n1\r\n"));
+    }
+
+    @Test
+    void attendance_shouldDefaultToNdjson() throws Exception {
+        // GIVEN
+        authenticate(true);
+
+        // WHEN
+        MvcResult result = mockMvc.perform(get("/api/admin/export/attendance"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"attendance.ndjson\""));
+    }
+
+    @Test
+    void attendance_shouldReturnForbidden_whenNotAdmin() throws Exception {
+        // GIVEN
+        authenticate(false);
+
+        // WHEN
+        mockMvc.perform(get("/api/admin/export/attendance"))
+            // THEN
+            .andExpect(status().isForbidden());
+        verifyNoInteractions(attendanceExportService);
+    }
+
+    @Test
+    void attendance_shouldReturnForbidden_whenAnonymous() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/admin/export/attendance"))
+            // THEN
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void attendance_shouldReturnBadRequest_whenFormatUnknown() throws Exception {
+        // GIVEN
+        authenticate(true);
+
+        // WHEN
+        mockMvc.perform(get("/api/admin/export/attendance").param("format", "xlsx"))
+            // THEN
+            .andExpect(status().isBadRequest());
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl user = UserDetailsImpl.builder().id(1L).username("yoga@studio.com").admin(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+    }
+}
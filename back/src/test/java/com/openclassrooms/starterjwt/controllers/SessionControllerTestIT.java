@@ -8,13 +8,21 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -23,14 +31,24 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.ETags;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionCatalogCache;
+import com.openclassrooms.starterjwt.services.SessionImportService;
 import com.openclassrooms.starterjwt.services.SessionService;
 
 @WebMvcTest(SessionController.class)
@@ -49,6 +67,12 @@ class SessionControllerTestIT {
     @MockBean
     private SessionMapper sessionMapper;
 
+    @MockBean
+    private SessionCatalogCache sessionCatalogCache;
+
+    @MockBean
+    private SessionImportService sessionImportService;
+
     @MockBean
     private UserDetailsServiceImpl userDetailsService;
 
@@ -58,9 +82,32 @@ class SessionControllerTestIT {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
     @MockBean
     private JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // caching itself is covered by SessionCatalogCacheTest; here every read goes through to the service
+        when(sessionCatalogCache.getAll(any())).thenAnswer(invocation -> {
+            List<SessionDto> dtos = ((Supplier<List<SessionDto>>) invocation.getArgument(0)).get();
+            return new SessionCatalogCache.Tagged<>(dtos, ETags.ofSessions(dtos));
+        });
+        when(sessionCatalogCache.get(any(), any())).thenAnswer(invocation -> {
+            SessionDto dto = ((Function<Long, SessionDto>) invocation.getArgument(1)).apply(invocation.getArgument(0));
+            return dto == null ? null : new SessionCatalogCache.Tagged<>(dto, ETags.ofSession(dto));
+        });
+    }
+
     @Test
     void findById_shouldReturnSession_whenFound() throws Exception {
         // GIVEN
@@ -83,7 +130,33 @@ class SessionControllerTestIT {
             .andExpect(jsonPath("$.name").value("Yoga"))
             .andExpect(jsonPath("$.description").value("Session description"))
             .andExpect(jsonPath("$.teacher_id").value(2))
-            .andExpect(jsonPath("$.date").exists());
+            .andExpect(jsonPath("$.date").exists())
+            .andExpect(header().string("ETag", "\"" + ETags.ofSession(dto) + "\""))
+            .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void findById_shouldReturnNotModified_whenETagMatches() throws Exception {
+        // GIVEN
+        Session session = Session.builder().id(1L).name("Yoga").build();
+        SessionDto dto = new SessionDto(1L, "Yoga", new Date(0), 2L, "Session description", null, null, null);
+        String eTag = "\"" + ETags.ofSession(dto) + "\"";
+
+        when(sessionService.getById(1L)).thenReturn(session);
+        when(sessionMapper.toDto(session)).thenReturn(dto);
+
+        // WHEN
+        mockMvc.perform(get("/api/session/1").header("If-None-Match", eTag))
+            // THEN
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(content().string(""));
+
+        // WHEN
+        mockMvc.perform(get("/api/session/1").header("If-None-Match", "\"stale\""))
+            // THEN
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1));
     }
 
     @Test
@@ -127,7 +200,7 @@ class SessionControllerTestIT {
         List<SessionDto> dtos = Arrays.asList(dto1, dto2);
 
         when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(dtos);
+        when(sessionMapper.toDto(sessions, Collections.emptyMap())).thenReturn(dtos);
 
         // WHEN
         mockMvc.perform(get("/api/session"))
@@ -138,7 +211,99 @@ class SessionControllerTestIT {
             .andExpect(jsonPath("$[0].teacher_id").value(2))
             .andExpect(jsonPath("$[1].id").value(2))
             .andExpect(jsonPath("$[1].name").value("Pilates"))
-            .andExpect(jsonPath("$[1].teacher_id").value(3));
+            .andExpect(jsonPath("$[1].teacher_id").value(3))
+            .andExpect(header().string("ETag", "\"" + ETags.ofSessions(dtos) + "\""));
+    }
+
+    @Test
+    void findAll_shouldReturnNotModified_whenETagMatches() throws Exception {
+        // GIVEN
+        List<Session> sessions = Arrays.asList(Session.builder().id(1L).name("Yoga").build());
+        List<SessionDto> dtos = Arrays.asList(
+            new SessionDto(1L, "Yoga", new Date(0), 2L, "Session description", Arrays.asList(5L), null, null));
+
+        when(sessionService.findAll()).thenReturn(sessions);
+        when(sessionMapper.toDto(sessions, Collections.emptyMap())).thenReturn(dtos);
+
+        // WHEN
+        mockMvc.perform(get("/api/session").header("If-None-Match", "\"" + ETags.ofSessions(dtos) + "\""))
+            // THEN
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void findAll_shouldReturnPageWithNextCursor_whenMoreSessionsExist() throws Exception {
+        // GIVEN
+        Session session1 = Session.builder().id(1L).name("Yoga").date(new Date(0)).build();
+        Session session2 = Session.builder().id(2L).name("Pilates").date(new Date(1000)).build();
+        Session session3 = Session.builder().id(3L).name("Stretching").date(new Date(2000)).build();
+        List<Session> firstPage = Arrays.asList(session1, session2);
+
+        SessionDto dto1 = new SessionDto(1L, "Yoga", new Date(0), 2L, "Session description", null, null, null);
+        SessionDto dto2 = new SessionDto(2L, "Pilates", new Date(1000), 3L, "Another description", null, null, null);
+
+        when(sessionService.findPage(null, 3)).thenReturn(Arrays.asList(session1, session2, session3));
+        when(sessionMapper.toDto(firstPage, Collections.emptyMap())).thenReturn(Arrays.asList(dto1, dto2));
+
+        // WHEN
+        mockMvc.perform(get("/api/session").param("limit", "2"))
+            // THEN
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions[0].id").value(1))
+            .andExpect(jsonPath("$.sessions[1].id").value(2))
+            .andExpect(jsonPath("$.nextCursor").value(SessionCursor.of(session2).encode()));
+    }
+
+    @Test
+    void findAll_shouldResumeAfterCursor_andOmitNextCursorOnLastPage() throws Exception {
+        // GIVEN
+        SessionCursor cursor = new SessionCursor(new Date(1000), 2L);
+        Session session3 = Session.builder().id(3L).name("Stretching").date(new Date(2000)).build();
+        List<Session> lastPage = Arrays.asList(session3);
+
+        SessionDto dto3 = new SessionDto(3L, "Stretching", new Date(2000), 2L, "Session description", null, null, null);
+
+        when(sessionService.findPage(cursor, SessionController.DEFAULT_PAGE_SIZE + 1)).thenReturn(lastPage);
+        when(sessionMapper.toDto(lastPage, Collections.emptyMap())).thenReturn(Arrays.asList(dto3));
+
+        // WHEN
+        mockMvc.perform(get("/api/session").param("cursor", cursor.encode()))
+            // THEN
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions[0].id").value(3))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void findAll_shouldCapPageSize() throws Exception {
+        // GIVEN
+        when(sessionService.findPage(null, SessionController.MAX_PAGE_SIZE + 1)).thenReturn(Collections.emptyList());
+
+        // WHEN
+        mockMvc.perform(get("/api/session").param("limit", "100000"))
+            // THEN
+            .andExpect(status().isOk());
+
+        verify(sessionService).findPage(null, SessionController.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void findAll_shouldReturnBadRequest_whenCursorInvalid() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/session").param("cursor", "not a cursor"))
+            // THEN
+            .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findPage(any(), any(Integer.class));
+    }
+
+    @Test
+    void findAll_shouldReturnBadRequest_whenLimitNotPositive() throws Exception {
+        // WHEN
+        mockMvc.perform(get("/api/session").param("limit", "0"))
+            // THEN
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -170,6 +335,24 @@ class SessionControllerTestIT {
             .andExpect(jsonPath("$.date").exists());
     }
 
+    @Test
+    void create_shouldReturnBadRequest_whenUsersUnknown() throws Exception {
+        // GIVEN
+        SessionDto request = new SessionDto(null, "Yoga", new Date(0), 2L, "Session description", Arrays.asList(10L, 30L), null, null);
+
+        when(sessionMapper.toEntity(any(SessionDto.class))).thenThrow(new BadRequestException("Unknown user ids: [10, 30]"));
+
+        // WHEN
+        mockMvc.perform(post("/api/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            // THEN
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown user ids: [10, 30]"));
+
+        verify(sessionService, never()).create(any(Session.class));
+    }
+
     @Test
     void create_shouldReturnBadRequest_whenPayloadInvalid() throws Exception {
         // GIVEN
@@ -185,6 +368,39 @@ class SessionControllerTestIT {
         verify(sessionService, never()).create(any(Session.class));
     }
 
+    @Test
+    void importSessions_shouldStreamNdjsonBodyAndReturnReport() throws Exception {
+        // GIVEN
+        String ndjson = "{\"name\": \"Yoga\"}\n{\"name\": \"Pilates\"}\n";
+        when(sessionImportService.importSessions(any(InputStream.class))).thenAnswer(invocation -> {
+            String body = StreamUtils.copyToString(invocation.<InputStream>getArgument(0), StandardCharsets.UTF_8);
+            return new SessionImportResponse(body.equals(ndjson) ? 1 : 0,
+                Collections.singletonList(new SessionImportResponse.RowError(1, "date must not be null")));
+        });
+
+        // WHEN
+        mockMvc.perform(post("/api/session/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+            // THEN
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.errors[0].row").value(1))
+            .andExpect(jsonPath("$.errors[0].message").value("date must not be null"));
+    }
+
+    @Test
+    void importSessions_shouldRejectUnsupportedContentType() throws Exception {
+        // WHEN
+        mockMvc.perform(post("/api/session/import")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Yoga"))
+            // THEN
+            .andExpect(status().isUnsupportedMediaType());
+
+        verify(sessionImportService, never()).importSessions(any(InputStream.class));
+    }
+
     @Test
     void update_shouldReturnUpdatedSession() throws Exception {
         // GIVEN
@@ -214,6 +430,24 @@ class SessionControllerTestIT {
             .andExpect(jsonPath("$.date").exists());
     }
 
+    @Test
+    void update_shouldReturnBadRequest_whenUsersUnknown() throws Exception {
+        // GIVEN
+        SessionDto request = new SessionDto(1L, "Yoga", new Date(0), 2L, "Session description", Arrays.asList(10L), null, null);
+
+        when(sessionMapper.toEntity(any(SessionDto.class))).thenThrow(new BadRequestException("Unknown user ids: [10]"));
+
+        // WHEN
+        mockMvc.perform(put("/api/session/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            // THEN
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown user ids: [10]"));
+
+        verify(sessionService, never()).update(any(Long.class), any(Session.class));
+    }
+
     @Test
     void update_shouldReturnBadRequest_whenPayloadInvalid() throws Exception {
         // GIVEN
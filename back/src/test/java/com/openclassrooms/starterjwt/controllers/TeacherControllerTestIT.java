@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.controllers;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -17,11 +19,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.openclassrooms.starterjwt.dto.ETags;
 import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import com.openclassrooms.starterjwt.services.TeacherService;
 
@@ -47,6 +53,15 @@ class TeacherControllerTestIT {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
     @MockBean
     private JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
@@ -69,7 +84,25 @@ class TeacherControllerTestIT {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.id").value(1))
             .andExpect(jsonPath("$.firstName").value("Alex"))
-            .andExpect(jsonPath("$.lastName").value("Dubois"));
+            .andExpect(jsonPath("$.lastName").value("Dubois"))
+            .andExpect(header().string("ETag", "\"" + ETags.ofTeacher(dto) + "\""))
+            .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void findById_shouldReturnNotModified_whenETagMatches() throws Exception {
+        // GIVEN
+        Teacher teacher = Teacher.builder().id(1L).firstName("Alex").lastName("Dubois").build();
+        TeacherDto dto = new TeacherDto(1L, "Dubois", "Alex", null, null);
+
+        when(teacherService.findById(1L)).thenReturn(teacher);
+        when(teacherMapper.toDto(teacher)).thenReturn(dto);
+
+        // WHEN
+        mockMvc.perform(get("/api/teacher/1").header("If-None-Match", "\"" + ETags.ofTeacher(dto) + "\""))
+            // THEN
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
     }
 
     @Test
@@ -121,7 +154,24 @@ class TeacherControllerTestIT {
             .andExpect(jsonPath("$[0].lastName").value("Nom1"))
             .andExpect(jsonPath("$[1].id").value(2))
             .andExpect(jsonPath("$[1].firstName").value("Test2"))
-            .andExpect(jsonPath("$[1].lastName").value("Nom2"));
+            .andExpect(jsonPath("$[1].lastName").value("Nom2"))
+            .andExpect(header().string("ETag", "\"" + ETags.ofTeachers(dtos) + "\""));
+    }
+
+    @Test
+    void findAll_shouldReturnNotModified_whenETagMatches() throws Exception {
+        // GIVEN
+        List<Teacher> teachers = Arrays.asList(Teacher.builder().id(1L).firstName("Test1").lastName("Nom1").build());
+        List<TeacherDto> dtos = Arrays.asList(new TeacherDto(1L, "Nom1", "Test1", null, null));
+
+        when(teacherService.findAll()).thenReturn(teachers);
+        when(teacherMapper.toDto(teachers)).thenReturn(dtos);
+
+        // WHEN
+        mockMvc.perform(get("/api/teacher").header("If-None-Match", "\"" + ETags.ofTeachers(dtos) + "\""))
+            // THEN
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
     }
 
     @Test
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -23,13 +24,20 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import com.openclassrooms.starterjwt.dto.UserDto;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.UserService;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
 @WebMvcTest(UserController.class)
 @AutoConfigureMockMvc(addFilters = false)
 class UserControllerTestIT {
@@ -52,6 +60,15 @@ class UserControllerTestIT {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
     @MockBean
     private JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
@@ -162,6 +179,38 @@ class UserControllerTestIT {
         verify(userService).delete(1L);
     }
 
+    @Test
+    void delete_shouldRevokeCurrentToken_whenAuthorized() throws Exception {
+        // GIVEN
+        User user = User.builder()
+            .id(1L)
+            .email("test@test.com")
+            .firstName("Test")
+            .lastName("User")
+            .password("pwd")
+            .admin(false)
+            .build();
+
+        when(userService.findById(1L)).thenReturn(user);
+
+        UserDetails principal = new org.springframework.security.core.userdetails.User(
+            "test@test.com",
+            "pwd",
+            Collections.emptyList()
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Claims claims = Jwts.claims().setId("token-id");
+
+        // WHEN
+        mockMvc.perform(delete("/api/user/1").requestAttr(AuthTokenFilter.CLAIMS_ATTRIBUTE, claims))
+            .andExpect(status().isOk());
+
+        // THEN
+        verify(userService).delete(1L);
+        verify(tokenRevocationList).revoke(claims);
+    }
+
     @Test
     void delete_shouldReturnUnauthorized_whenUserMismatch() throws Exception {
         // GIVEN
@@ -215,4 +264,85 @@ class UserControllerTestIT {
         // THEN
         verify(userService, never()).delete(1L);
     }
+
+    @Test
+    void revokeTokens_shouldBumpVersionAndRevokeCurrentToken_whenAuthorized() throws Exception {
+        // GIVEN
+        User user = User.builder()
+            .id(1L)
+            .email("test@test.com")
+            .firstName("Test")
+            .lastName("User")
+            .password("pwd")
+            .admin(false)
+            .build();
+
+        when(userService.findById(1L)).thenReturn(user);
+
+        UserDetails principal = new org.springframework.security.core.userdetails.User(
+            "test@test.com",
+            "pwd",
+            Collections.emptyList()
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Claims claims = Jwts.claims().setId("token-id");
+
+        // WHEN
+        mockMvc.perform(post("/api/user/1/revoke-tokens").requestAttr(AuthTokenFilter.CLAIMS_ATTRIBUTE, claims))
+            .andExpect(status().isOk());
+
+        // THEN
+        verify(userService).revokeTokens(1L);
+        verify(tokenRevocationList).revoke(claims);
+    }
+
+    @Test
+    void revokeTokens_shouldReturnUnauthorized_whenUserMismatch() throws Exception {
+        // GIVEN
+        User user = User.builder()
+            .id(1L)
+            .email("owner@test.com")
+            .firstName("Test")
+            .lastName("User")
+            .password("pwd")
+            .admin(false)
+            .build();
+
+        when(userService.findById(1L)).thenReturn(user);
+
+        UserDetails principal = new org.springframework.security.core.userdetails.User(
+            "other@test.com",
+            "pwd",
+            Collections.emptyList()
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        // WHEN
+        mockMvc.perform(post("/api/user/1/revoke-tokens"))
+            .andExpect(status().isUnauthorized());
+
+        // THEN
+        verify(userService, never()).revokeTokens(1L);
+    }
+
+    @Test
+    void revokeTokens_shouldReturnNotFound_whenMissing() throws Exception {
+        // GIVEN
+        when(userService.findById(1L)).thenReturn(null);
+
+        // WHEN
+        mockMvc.perform(post("/api/user/1/revoke-tokens"))
+            .andExpect(status().isNotFound());
+
+        // THEN
+        verify(userService, never()).revokeTokens(1L);
+    }
+
+    @Test
+    void revokeTokens_shouldReturnBadRequest_whenIdInvalid() throws Exception {
+        mockMvc.perform(post("/api/user/not-a-number/revoke-tokens"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+class ETagsTest {
+
+    @Test
+    void ofSession_shouldOnlyMatchIdenticalRepresentations() {
+        // GIVEN
+        SessionDto session = session();
+
+        // WHEN
+        String eTag = ETags.ofSession(session);
+
+        // THEN
+        assertEquals(eTag, ETags.ofSession(session()));
+        assertTrue(eTag.matches("[A-Za-z0-9_-]{22}"));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setName("Pilates"))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setDate(new Date(1)))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setTeacher_id(3L))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setDescription("Another description"))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setUsers(Arrays.asList(10L, 21L)))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 1)))));
+        assertNotEquals(eTag, ETags.ofSession(session(s -> s.setDate(null))));
+    }
+
+    @Test
+    void ofSessions_shouldDependOnOrderAndRecordBoundaries() {
+        // GIVEN
+        SessionDto first = session();
+        SessionDto second = session(s -> s.setId(2L));
+
+        // THEN
+        assertEquals(ETags.ofSessions(Arrays.asList(first, second)),
+            ETags.ofSessions(Arrays.asList(session(), session(s -> s.setId(2L)))));
+        assertNotEquals(ETags.ofSessions(Arrays.asList(first, second)), ETags.ofSessions(Arrays.asList(second, first)));
+        assertNotEquals(ETags.ofSessions(Collections.singletonList(first)), ETags.ofSessions(Collections.emptyList()));
+    }
+
+    @Test
+    void ofTeacher_shouldOnlyMatchIdenticalRepresentations() {
+        // GIVEN
+        TeacherDto teacher = new TeacherDto(1L, "Delahaye", "Margot", null, null);
+
+        // THEN
+        assertEquals(ETags.ofTeacher(teacher), ETags.ofTeacher(new TeacherDto(1L, "Delahaye", "Margot", null, null)));
+        assertNotEquals(ETags.ofTeacher(teacher), ETags.ofTeacher(new TeacherDto(1L, "Delahaye", "Helene", null, null)));
+        assertNotEquals(ETags.ofTeacher(teacher), ETags.ofTeacher(new TeacherDto(1L, "null", "Margot", null, null)));
+        assertNotEquals(ETags.ofTeachers(Collections.singletonList(teacher)), ETags.ofTeachers(Collections.emptyList()));
+    }
+
+    private static SessionDto session() {
+        return session(s -> { });
+    }
+
+    private static SessionDto session(Consumer<SessionDto> change) {
+        SessionDto session = new SessionDto(1L, "Yoga", new Date(0), 2L, "Session description", Arrays.asList(10L, 20L),
+            LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 1, 10, 0));
+        change.accept(session);
+        return session;
+    }
+}
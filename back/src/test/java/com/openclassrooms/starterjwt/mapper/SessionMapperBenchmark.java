@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+
+/**
+ * SessionMapper over session lists of growing size. The services are in-memory stubs, so only the mapping
+ * itself is measured, not the queries toEntity would issue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionMapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private SessionMapper sessionMapper;
+    private List<Session> sessions;
+    private Map<Long, List<Long>> participantIds;
+    private List<SessionDto> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Teacher teacher = Teacher.builder().id(1L).firstName("Margot").lastName("Delahaye").build();
+        User user1 = new User("u1@test.com", "Nom", "User1", "pwd", false);
+        user1.setId(1L);
+        User user2 = new User("u2@test.com", "Nom", "User2", "pwd", false);
+        user2.setId(2L);
+        Map<Long, User> usersById = new HashMap<>();
+        usersById.put(1L, user1);
+        usersById.put(2L, user2);
+
+        sessionMapper = Mappers.getMapper(SessionMapper.class);
+        ReflectionTestUtils.setField(sessionMapper, "teacherService", new TeacherService(null) {
+            @Override
+            public Teacher findById(Long id) {
+                return teacher;
+            }
+        });
+        ReflectionTestUtils.setField(sessionMapper, "userService", new UserService(null, null, null, null) {
+            @Override
+            public List<User> findAllById(Collection<Long> ids) {
+                List<User> users = new ArrayList<>();
+                ids.forEach(id -> users.add(usersById.get(id)));
+                return users;
+            }
+        });
+
+        sessions = new ArrayList<>(size);
+        participantIds = new HashMap<>();
+        for (long i = 0; i < size; i++) {
+            sessions.add(Session.builder()
+                .id(i)
+                .name("Session " + i)
+                .description("Session description")
+                .date(new Date(i * 1000L))
+                .teacher(teacher)
+                .users(Arrays.asList(user1, user2))
+                .build());
+            participantIds.put(i, Arrays.asList(1L, 2L));
+        }
+        dtos = sessionMapper.toDto(sessions, participantIds);
+    }
+
+    @Benchmark
+    public List<SessionDto> toDto() {
+        return sessionMapper.toDto(sessions);
+    }
+
+    @Benchmark
+    public List<SessionDto> toDtoWithParticipantIds() {
+        return sessionMapper.toDto(sessions, participantIds);
+    }
+
+    @Benchmark
+    public List<Session> toEntity() {
+        return sessionMapper.toEntity(dtos);
+    }
+}
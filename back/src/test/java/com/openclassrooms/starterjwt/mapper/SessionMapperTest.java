@@ -3,12 +3,18 @@ package com.openclassrooms.starterjwt.mapper;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
@@ -62,8 +69,7 @@ class SessionMapperTest {
         User user2 = User.builder().id(20L).email("u2@test.com").firstName("User2").lastName("Test2").password("pwd").admin(false).build();
 
         when(teacherService.findById(5L)).thenReturn(teacher);
-        when(userService.findById(10L)).thenReturn(user1);
-        when(userService.findById(20L)).thenReturn(user2);
+        when(userService.findAllById(Arrays.asList(10L, 20L))).thenReturn(Arrays.asList(user2, user1));
 
         // WHEN
         Session session = sessionMapper.toEntity(dto);
@@ -80,6 +86,41 @@ class SessionMapperTest {
         assertEquals(20L, session.getUsers().get(1).getId());
     }
 
+    @Test
+    void toEntity_shouldResolveDuplicateUserIdsOnce() {
+        // GIVEN
+        SessionDto dto = new SessionDto(1L, "Yoga", new Date(0), null, "Session description",
+            Arrays.asList(10L, 10L), null, null);
+
+        User user = User.builder().id(10L).email("u1@test.com").firstName("User1").lastName("Test1").password("pwd").admin(false).build();
+
+        when(userService.findAllById(Arrays.asList(10L))).thenReturn(Arrays.asList(user));
+
+        // WHEN
+        Session session = sessionMapper.toEntity(dto);
+
+        // THEN
+        assertEquals(1, session.getUsers().size());
+        verify(userService, never()).findById(any());
+    }
+
+    @Test
+    void toEntity_shouldReportAllMissingUserIds() {
+        // GIVEN
+        SessionDto dto = new SessionDto(1L, "Yoga", new Date(0), null, "Session description",
+            Arrays.asList(10L, 20L, 30L), null, null);
+
+        User user = User.builder().id(20L).email("u2@test.com").firstName("User2").lastName("Test2").password("pwd").admin(false).build();
+
+        when(userService.findAllById(Arrays.asList(10L, 20L, 30L))).thenReturn(Arrays.asList(user));
+
+        // WHEN
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> sessionMapper.toEntity(dto));
+
+        // THEN
+        assertEquals("Unknown user ids: [10, 30]", exception.getMessage());
+    }
+
     @Test
     void toEntity_shouldHandleNullTeacherAndUsers() {
         // GIVEN
@@ -280,4 +321,35 @@ class SessionMapperTest {
         assertEquals(1L, dtos.get(0).getId());
         assertEquals(2L, dtos.get(1).getId());
     }
+
+    @Test
+    void toDtoWithParticipantIds_shouldUseProvidedIdsWithoutTouchingUsers() {
+        // GIVEN
+        Teacher teacher = Teacher.builder().id(7L).firstName("Test").lastName("Nom").build();
+        Session session1 = Session.builder()
+            .id(1L)
+            .name("Yoga")
+            .description("Session description")
+            .date(new Date(0))
+            .teacher(teacher)
+            .build();
+        Session session2 = Session.builder()
+            .id(2L)
+            .name("Pilates")
+            .description("Another description")
+            .date(new Date(0))
+            .build();
+
+        Map<Long, List<Long>> participantIds = Collections.singletonMap(1L, Arrays.asList(10L, 20L));
+
+        // WHEN
+        List<SessionDto> dtos = sessionMapper.toDto(Arrays.asList(session1, session2), participantIds);
+
+        // THEN
+        assertEquals(2, dtos.size());
+        assertEquals(7L, dtos.get(0).getTeacher_id());
+        assertEquals(Arrays.asList(10L, 20L), dtos.get(0).getUsers());
+        assertNull(dtos.get(1).getTeacher_id());
+        assertTrue(dtos.get(1).getUsers().isEmpty());
+    }
 }
@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+class DataSourceProxyConfigTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void postProcessor_shouldWrapDataSourcesOnlyOnce() {
+        // GIVEN
+        ObjectProvider<SlowQueryLogger> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(mock(SlowQueryLogger.class));
+        BeanPostProcessor postProcessor = DataSourceProxyConfig.slowQueryDataSourcePostProcessor(provider);
+        Object other = new Object();
+
+        // WHEN
+        Object wrapped = postProcessor.postProcessAfterInitialization(mock(DataSource.class), "dataSource");
+
+        // THEN
+        assertTrue(wrapped instanceof ProxyDataSource);
+        assertSame(wrapped, postProcessor.postProcessAfterInitialization(wrapped, "dataSource"));
+        assertSame(other, postProcessor.postProcessAfterInitialization(other, "other"));
+    }
+}
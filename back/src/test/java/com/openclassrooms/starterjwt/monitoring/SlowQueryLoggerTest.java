@@ -0,0 +1,142 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+class SlowQueryLoggerTest {
+
+    private static final String QUERY = "select * from SESSIONS where id = ? and name = ?";
+
+    private final Logger logbackLogger = (Logger) LoggerFactory.getLogger(SlowQueryLogger.class);
+    private ListAppender<ILoggingEvent> appender;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        appender = new ListAppender<>();
+        appender.start();
+        logbackLogger.addAppender(appender);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        logbackLogger.detachAppender(appender);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMs);
+        executionInfo.setSuccess(true);
+        return executionInfo;
+    }
+
+    private static QueryInfo query() throws NoSuchMethodException {
+        QueryInfo queryInfo = new QueryInfo(QUERY);
+        queryInfo.getParametersList().add(Arrays.asList(
+            new ParameterSetOperation(PreparedStatement.class.getMethod("setLong", int.class, long.class),
+                new Object[] {1, 42L}),
+            new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+                new Object[] {2, "secret value"})));
+        return queryInfo;
+    }
+
+    @Test
+    void afterQuery_shouldLogSlowStatementWithRouteAndParameterTypes() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(100, 0, 10, meterRegistry);
+
+        // WHEN
+        slowQueryLogger.afterQuery(execution(150), Collections.singletonList(query()));
+        slowQueryLogger.shutdown();
+
+        // THEN
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        assertEquals("sql duration_ms=150 endpoint=\"GET /api/session/{id}\" success=true batch_size=0 "
+            + "params=[Long, String] query=\"" + QUERY + "\"", event.getFormattedMessage());
+        assertTrue(event.getThreadName().startsWith("sql-log"));
+    }
+
+    @Test
+    void afterQuery_shouldSkipFastStatementsUnlessSampled() throws Exception {
+        // GIVEN
+        SlowQueryLogger unsampled = new SlowQueryLogger(100, 0, 10, meterRegistry);
+        SlowQueryLogger sampled = new SlowQueryLogger(100, 1, 10, meterRegistry);
+
+        // WHEN
+        unsampled.afterQuery(execution(5), Collections.singletonList(query()));
+        sampled.afterQuery(execution(5), Collections.singletonList(new QueryInfo("select 1")));
+        unsampled.shutdown();
+        sampled.shutdown();
+
+        // THEN
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.INFO, appender.list.get(0).getLevel());
+        assertEquals("sql duration_ms=5 endpoint=\"-\" success=true batch_size=0 params=[] query=\"select 1\"",
+            appender.list.get(0).getFormattedMessage());
+    }
+
+    @Test
+    void afterQuery_shouldDropEntriesWhenQueueIsFull() throws Exception {
+        // GIVEN
+        CountDownLatch release = new CountDownLatch(1);
+        ListAppender<ILoggingEvent> blocking = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.append(event);
+            }
+        };
+        blocking.start();
+        logbackLogger.addAppender(blocking);
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(0, 0, 1, meterRegistry);
+
+        try {
+            // WHEN
+            for (int i = 0; i < 3; i++) {
+                slowQueryLogger.afterQuery(execution(1), Collections.singletonList(query()));
+            }
+
+            // THEN
+            assertEquals(1, meterRegistry.get("sql.log.dropped").counter().count());
+        } finally {
+            release.countDown();
+            slowQueryLogger.shutdown();
+            logbackLogger.detachAppender(blocking);
+        }
+        assertEquals(2, blocking.list.size());
+    }
+}
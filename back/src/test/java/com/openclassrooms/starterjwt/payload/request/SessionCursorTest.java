@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class SessionCursorTest {
+
+    @Test
+    void decode_shouldRestoreEncodedCursor() {
+        // GIVEN
+        SessionCursor cursor = new SessionCursor(new Date(1700000000000L), 42L);
+
+        // WHEN
+        SessionCursor decoded = SessionCursor.decode(cursor.encode());
+
+        // THEN
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_shouldThrow_whenTokenMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> SessionCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SessionCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class RevokedTokenRepositoryTestIT {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void findByIdGreaterThan_shouldReturnNewerRowsInIdOrder() {
+        // GIVEN
+        Date expiresAt = new Date(System.currentTimeMillis() + 60000);
+        RevokedToken first = revokedTokenRepository.save(RevokedToken.builder().jti("jti-1").expiresAt(expiresAt).build());
+        revokedTokenRepository.save(RevokedToken.builder().jti("jti-2").expiresAt(expiresAt).build());
+        revokedTokenRepository.save(RevokedToken.builder().jti("jti-3").expiresAt(expiresAt).build());
+
+        // WHEN
+        List<String> newer = revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(first.getId()).stream()
+            .map(RevokedToken::getJti)
+            .collect(Collectors.toList());
+
+        // THEN
+        assertEquals(List.of("jti-2", "jti-3"), newer);
+    }
+
+    @Test
+    void deleteExpired_shouldOnlyRemoveExpiredRows() {
+        // GIVEN
+        Date now = new Date();
+        revokedTokenRepository.save(RevokedToken.builder().jti("expired").expiresAt(new Date(now.getTime() - 1000)).build());
+        revokedTokenRepository.save(RevokedToken.builder().jti("live").expiresAt(new Date(now.getTime() + 60000)).build());
+
+        // WHEN
+        int deleted = revokedTokenRepository.deleteExpired(now);
+
+        // THEN
+        assertEquals(1, deleted);
+        assertEquals("live", revokedTokenRepository.findAll().get(0).getJti());
+    }
+}
@@ -0,0 +1,130 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.NoOpQueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+/**
+ * Persists a batch of sessions, each with two participants, through the JPA repository in one transaction.
+ * The batchSize param sets hibernate.jdbc.batch_size, so batchSize=1 shows the cost of one round trip per row.
+ * In-memory H2 has no network hop, so the JDBC execution count printed at the end of each trial (one per statement
+ * or batch, id allocation included) is the figure that carries over to MySQL, where each one is a round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SessionInsertBenchmark {
+
+    private static final int SESSIONS = 1000;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private SessionRepository sessionRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Teacher teacher;
+    private List<User> participants;
+    private final AtomicLong executions = new AtomicLong();
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+            .run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:insertbench;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.show-sql=false");
+        sessionRepository = context.getBean(SessionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        teacher = context.getBean(TeacherRepository.class).findAll().get(0);
+        participants = Arrays.asList(
+            userRepository.save(new User("first@bench.com", "Bench", "First", "pwd", false)),
+            userRepository.save(new User("second@bench.com", "Bench", "Second", "pwd", false)));
+
+        // the application's DataSource is already wrapped by DataSourceProxyConfig; count what reaches the driver
+        ((ProxyDataSource) context.getBean(DataSource.class)).getProxyConfig().getQueryListener()
+            .addListener(new NoOpQueryExecutionListener() {
+                @Override
+                public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    executions.incrementAndGet();
+                }
+            });
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        long before = executions.get();
+        jdbcTemplate.update("DELETE FROM PARTICIPATE");
+        jdbcTemplate.update("DELETE FROM SESSIONS");
+        executions.set(before);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%nbatchSize=%d: %.1f JDBC executions per %d sessions%n",
+            batchSize, (double) executions.get() / operations, SESSIONS);
+        context.close();
+    }
+
+    @Benchmark
+    public List<Session> insertSessions() {
+        operations++;
+        return transactionTemplate.execute(status -> {
+            List<Session> sessions = new ArrayList<>(SESSIONS);
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .description("Benchmark session")
+                    .date(new Date(i * 60_000L))
+                    .teacher(teacher)
+                    .users(new ArrayList<>(participants))
+                    .build());
+            }
+            return sessionRepository.saveAll(sessions);
+        });
+    }
+}
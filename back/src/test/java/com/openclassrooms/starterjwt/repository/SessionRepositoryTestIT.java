@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SessionRepositoryTestIT {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Session save(String name, long date) {
+        return sessionRepository.save(Session.builder()
+            .name(name)
+            .description("Session description")
+            .date(new Date(date))
+            .build());
+    }
+
+    private User user(String email) {
+        return entityManager.persist(User.builder()
+            .email(email)
+            .firstName("First")
+            .lastName("Last")
+            .password("pwd")
+            .admin(false)
+            .build());
+    }
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+    }
+
+    @Test
+    void findAllByOrderByDateAscIdAsc_shouldReturnFirstPageOrderedByDateThenId() {
+        // GIVEN
+        save("Late", 3000);
+        Session early = save("Early", 1000);
+        Session sameDate = save("Same date", 1000);
+
+        // WHEN
+        List<Session> page = sessionRepository.findAllByOrderByDateAscIdAsc(PageRequest.of(0, 2));
+
+        // THEN
+        assertEquals(2, page.size());
+        assertEquals(early.getId(), page.get(0).getId());
+        assertEquals(sameDate.getId(), page.get(1).getId());
+    }
+
+    @Test
+    void findPageAfter_shouldResumeStrictlyAfterCursor() {
+        // GIVEN
+        Session first = save("First", 1000);
+        Session second = save("Second", 1000);
+        Session third = save("Third", 2000);
+        Session fourth = save("Fourth", 3000);
+
+        // WHEN
+        List<Long> ids = sessionRepository
+            .findPageAfter(first.getDate(), first.getId(), PageRequest.of(0, 2))
+            .stream()
+            .map(Session::getId)
+            .collect(Collectors.toList());
+
+        // THEN
+        assertEquals(List.of(second.getId(), third.getId()), ids);
+        assertEquals(List.of(fourth.getId()), sessionRepository
+            .findPageAfter(third.getDate(), third.getId(), PageRequest.of(0, 2))
+            .stream()
+            .map(Session::getId)
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    void participants_shouldComeBackInUserIdOrderWhateverTheInsertOrder() {
+        // GIVEN
+        User first = user("first@order.com");
+        User second = user("second@order.com");
+        User third = user("third@order.com");
+        Session yoga = save("Yoga", 1000);
+        Session pilates = save("Pilates", 2000);
+        yoga.setUsers(Arrays.asList(third, first, second));
+        pilates.setUsers(Arrays.asList(second, first));
+        entityManager.flush();
+        entityManager.clear();
+
+        // WHEN
+        List<List<Long>> rows = sessionRepository.findParticipantIds(Arrays.asList(pilates.getId(), yoga.getId()))
+            .stream()
+            .map(row -> Arrays.asList(((Number) row[0]).longValue(), ((Number) row[1]).longValue()))
+            .collect(Collectors.toList());
+        List<Long> yogaUsers = sessionRepository.findById(yoga.getId()).get().getUsers().stream()
+            .map(User::getId)
+            .collect(Collectors.toList());
+
+        // THEN
+        assertEquals(List.of(
+            List.of(yoga.getId(), first.getId()),
+            List.of(yoga.getId(), second.getId()),
+            List.of(yoga.getId(), third.getId()),
+            List.of(pilates.getId(), first.getId()),
+            List.of(pilates.getId(), second.getId())), rows);
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), yogaUsers);
+    }
+}
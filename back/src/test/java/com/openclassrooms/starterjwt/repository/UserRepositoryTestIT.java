@@ -56,4 +56,18 @@ class UserRepositoryTestIT {
         assertNotNull(found);
         assertEquals("find@test.com", found.getEmail());
     }
+
+    @Test
+    void incrementTokenVersion_shouldBumpStoredVersion() {
+        // GIVEN
+        User user = userRepository.save(new User("version@test.com", "Nom", "Test", "pwd", false));
+
+        // WHEN
+        int updated = userRepository.incrementTokenVersion(user.getId());
+
+        // THEN
+        assertEquals(1, updated);
+        assertEquals(1, userRepository.findTokenVersionById(user.getId()).orElse(null));
+        assertFalse(userRepository.findTokenVersionById(-1L).isPresent());
+    }
 }
@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.core.AuthenticationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A 401 flood from clients holding expired tokens: the former per-call ObjectMapper and HashMap body
+ * against the shared streaming writer. Run with -prof gc to compare allocation per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AuthEntryPointJwtBenchmark {
+
+    private AuthEntryPointJwt entryPoint;
+    private MockHttpServletRequest request;
+    private AuthenticationException exception;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entryPoint = new AuthEntryPointJwt(new SimpleMeterRegistry(), 1000);
+        request = new MockHttpServletRequest("GET", "/api/session");
+        request.setServletPath("/api/session");
+        exception = new CredentialsExpiredException("Full authentication is required to access this resource");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse perCallObjectMapper() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+        body.put("error", "Unauthorized");
+        body.put("message", exception.getMessage());
+        body.put("path", request.getServletPath());
+
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.writeValue(response.getOutputStream(), body);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse sharedStreamingWriter() throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        entryPoint.commence(request, response, exception);
+        return response;
+    }
+}
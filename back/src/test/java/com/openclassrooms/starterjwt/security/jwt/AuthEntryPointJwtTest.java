@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.security.jwt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Map;
+
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +15,21 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class AuthEntryPointJwtTest {
 
+    private SimpleMeterRegistry meterRegistry;
+
     private AuthEntryPointJwt entryPoint;
 
     @BeforeEach
     void setUp() {
-        entryPoint = new AuthEntryPointJwt();
+        meterRegistry = new SimpleMeterRegistry();
+        entryPoint = new AuthEntryPointJwt(meterRegistry, 60000);
     }
 
     @Test
@@ -40,4 +50,35 @@ class AuthEntryPointJwtTest {
         assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
         assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
     }
-}
\ No newline at end of file
+
+    @Test
+    void commence_shouldWriteJsonBody() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath("/api/session");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // WHEN
+        entryPoint.commence(request, response, new BadCredentialsException("Full authentication is \"required\""));
+
+        // THEN
+        Map<String, Object> body = new ObjectMapper()
+            .readValue(response.getContentAsString(), new TypeReference<Map<String, Object>>() { });
+        assertEquals(401, body.get("status"));
+        assertEquals("Unauthorized", body.get("error"));
+        assertEquals("Full authentication is \"required\"", body.get("message"));
+        assertEquals("/api/session", body.get("path"));
+    }
+
+    @Test
+    void commence_shouldCountEveryRejection() throws Exception {
+        // WHEN
+        for (int i = 0; i < 3; i++) {
+            entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                new BadCredentialsException("Unauthorized"));
+        }
+
+        // THEN
+        assertEquals(3.0, meterRegistry.get("auth.unauthorized").counter().count());
+    }
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Per-request cost of authenticating a bearer token: the former validate-then-read-subject double parse,
+ * a single verified parse, and the full filter once the token sits in the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private JwtUtils jwtUtils;
+    private AuthTokenFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        jwtUtils = new JwtUtils(new JwtKeyRing("benchmarkSecret", JwtKeyRing.DEFAULT_KEY_ID, ""), new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenExpirationMs", 3600000L);
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+            .id(1L)
+            .username("yoga@studio.com")
+            .firstName("Admin")
+            .lastName("Admin")
+            .admin(true)
+            .password("pwd")
+            .build();
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+
+        UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername("yoga@studio.com")).thenReturn(userDetails);
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(10000));
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", mock(TokenRevocationList.class));
+
+        request = new MockHttpServletRequest("GET", "/api/session");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        chain = (servletRequest, servletResponse) -> { };
+    }
+
+    @Benchmark
+    public void doubleParse(Blackhole blackhole) {
+        if (jwtUtils.validateJwtToken(token)) {
+            blackhole.consume(jwtUtils.getUserNameFromJwtToken(token));
+        }
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) {
+        blackhole.consume(jwtUtils.getValidatedClaims(token).getSubject());
+    }
+
+    @Benchmark
+    public void filterWithVerifiedTokenCache() throws Exception {
+        filter.doFilter(request, response, chain);
+        SecurityContextHolder.clearContext();
+    }
+}
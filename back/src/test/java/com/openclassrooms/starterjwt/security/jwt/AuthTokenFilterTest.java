@@ -7,16 +7,20 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.any;
 
 import javax.servlet.FilterChain;
 
 import java.util.Collections;
+import java.util.Date;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -24,9 +28,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
 @ExtendWith(MockitoExtension.class)
 class AuthTokenFilterTest {
 
@@ -36,9 +46,31 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Spy
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100);
+
     @InjectMocks
     private AuthTokenFilter filter;
 
+    private static Claims claims(String subject) {
+        return Jwts.claims()
+            .setSubject(subject)
+            .setExpiration(new Date(System.currentTimeMillis() + 60000));
+    }
+
+    private static Claims identityClaims(String subject, Long id, Integer tokenVersion) {
+        Claims claims = claims(subject);
+        claims.put(JwtUtils.CLAIM_ID, id);
+        claims.put(JwtUtils.CLAIM_TOKEN_VERSION, tokenVersion);
+        return claims;
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
@@ -74,8 +106,7 @@ class AuthTokenFilterTest {
             Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
         );
 
-        when(jwtUtils.validateJwtToken("valid.jwt.token")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("valid.jwt.token")).thenReturn("test@test.com");
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims("test@test.com"));
         when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
 
         // WHEN
@@ -96,7 +127,7 @@ class AuthTokenFilterTest {
 
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("invalid.jwt.token")).thenReturn(false);
+        when(jwtUtils.getValidatedClaims("invalid.jwt.token")).thenReturn(null);
 
         // WHEN
         filter.doFilter(request, response, chain);
@@ -115,8 +146,7 @@ class AuthTokenFilterTest {
 
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("valid.jwt.token")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("valid.jwt.token")).thenReturn("test@test.com");
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims("test@test.com"));
         doThrow(new RuntimeException("boom")).when(userDetailsService).loadUserByUsername("test@test.com");
 
         // WHEN
@@ -136,13 +166,13 @@ class AuthTokenFilterTest {
 
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("")).thenReturn(false);
+        when(jwtUtils.getValidatedClaims("")).thenReturn(null);
 
         // WHEN
         filter.doFilter(request, response, chain);
 
         // THEN
-        verify(jwtUtils).validateJwtToken("");
+        verify(jwtUtils).getValidatedClaims("");
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(chain).doFilter(request, response);
     }
@@ -160,8 +190,169 @@ class AuthTokenFilterTest {
         filter.doFilter(request, response, chain);
 
         // THEN
-        verify(jwtUtils, never()).validateJwtToken("abc.def");
+        verify(jwtUtils, never()).getValidatedClaims("abc.def");
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(chain).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_shouldVerifyTokenOnce_whenReusedAcrossRequests() throws Exception {
+        // GIVEN
+        User userDetails = new User(
+            "test@test.com",
+            "pwd",
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims("test@test.com"));
+        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+
+        // WHEN
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer valid.jwt.token");
+            filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+            SecurityContextHolder.clearContext();
+        }
+
+        // THEN
+        verify(jwtUtils, times(1)).getValidatedClaims("valid.jwt.token");
+        verify(jwtUtils, never()).validateJwtToken(any());
+        verify(jwtUtils, never()).getUserNameFromJwtToken(any());
+    }
+
+    @Test
+    void doFilterInternal_shouldBuildPrincipalFromClaims_whenStateless() throws Exception {
+        // GIVEN
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid.jwt.token");
+
+        Claims claims = identityClaims("test@test.com", 1L, 0);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("test@test.com").build();
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void doFilterInternal_shouldFallBackToLookup_whenStatelessTokenLacksIdentityClaims() throws Exception {
+        // GIVEN
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer legacy.jwt.token");
+
+        Claims claims = claims("test@test.com");
+        User userDetails = new User("test@test.com", "pwd", Collections.emptyList());
+        when(jwtUtils.getValidatedClaims("legacy.jwt.token")).thenReturn(claims);
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(null);
+        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertEquals("test@test.com", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void doFilterInternal_shouldSkipAuthentication_whenTokenVersionRevoked() throws Exception {
+        // GIVEN
+        ReflectionTestUtils.setField(filter, "tokenVersionCheck", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked.jwt.token");
+        FilterChain chain = mock(FilterChain.class);
+
+        when(jwtUtils.getValidatedClaims("revoked.jwt.token")).thenReturn(identityClaims("test@test.com", 1L, 0));
+        when(tokenVersionService.isCurrent(1L, 0)).thenReturn(false);
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // THEN
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_shouldSkipAuthentication_whenVersionCheckedTokenLacksId() throws Exception {
+        // GIVEN
+        ReflectionTestUtils.setField(filter, "tokenVersionCheck", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer legacy.jwt.token");
+
+        when(jwtUtils.getValidatedClaims("legacy.jwt.token")).thenReturn(claims("test@test.com"));
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(tokenVersionService, never()).isCurrent(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_shouldAuthenticate_whenTokenVersionCurrent() throws Exception {
+        // GIVEN
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+        ReflectionTestUtils.setField(filter, "tokenVersionCheck", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid.jwt.token");
+
+        Claims claims = identityClaims("test@test.com", 1L, 2);
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims);
+        when(tokenVersionService.isCurrent(1L, 2)).thenReturn(true);
+        when(jwtUtils.getUserDetailsFromClaims(claims))
+            .thenReturn(UserDetailsImpl.builder().id(1L).username("test@test.com").build());
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertEquals("test@test.com", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void doFilterInternal_shouldSkipAuthentication_whenTokenRevoked() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked.jwt.token");
+
+        Claims claims = claims("test@test.com").setId("revoked-id");
+        when(jwtUtils.getValidatedClaims("revoked.jwt.token")).thenReturn(claims);
+        when(tokenRevocationList.isRevoked("revoked-id")).thenReturn(true);
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNull(request.getAttribute(AuthTokenFilter.CLAIMS_ATTRIBUTE));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void doFilterInternal_shouldExposeClaims_whenAuthenticated() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid.jwt.token");
+
+        Claims claims = claims("test@test.com").setId("token-id");
+        when(jwtUtils.getValidatedClaims("valid.jwt.token")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("test@test.com"))
+            .thenReturn(new User("test@test.com", "pwd", Collections.emptyList()));
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        // THEN
+        assertEquals(claims, request.getAttribute(AuthTokenFilter.CLAIMS_ATTRIBUTE));
+    }
 }
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissInsertedValues() {
+        // GIVEN
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(UUID.randomUUID().toString());
+        }
+
+        // WHEN
+        values.forEach(filter::put);
+
+        // THEN
+        assertTrue(values.stream().allMatch(filter::mightContain));
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearConfiguredRate() {
+        // GIVEN
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        // WHEN
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // THEN
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
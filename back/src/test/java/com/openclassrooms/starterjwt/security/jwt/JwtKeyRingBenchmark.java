@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Per-token cost of signing and verifying with the String secret re-decoded and a fresh parser on every call,
+ * against the key ring's precomputed key and shared parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtKeyRingBenchmark {
+
+    private static final String SECRET = "benchmarkSecret";
+
+    private JwtKeyRing keyRing;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keyRing = new JwtKeyRing(SECRET, JwtKeyRing.DEFAULT_KEY_ID, "");
+        token = keyRing.builder().setSubject("yoga@studio.com").compact();
+    }
+
+    @Benchmark
+    public String signWithStringSecret() {
+        return Jwts.builder()
+            .setSubject("yoga@studio.com")
+            .signWith(SignatureAlgorithm.HS512, SECRET)
+            .compact();
+    }
+
+    @Benchmark
+    public String signWithKeyRing() {
+        return keyRing.builder()
+            .setSubject("yoga@studio.com")
+            .compact();
+    }
+
+    @Benchmark
+    public Claims parseWithStringSecret() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims parseWithKeyRing() {
+        return keyRing.parse(token).getBody();
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+class JwtKeyRingTest {
+
+    private static final String OLD_SECRET = "oldKey123456789a";
+    private static final String NEW_SECRET = "newKey123456789a";
+
+    @Test
+    void builder_shouldSignWithActiveKeyId() {
+        // GIVEN
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "2026-10", "");
+
+        // WHEN
+        Jws<Claims> jws = keyRing.parse(keyRing.builder().setSubject("test@test.com").compact());
+
+        // THEN
+        assertEquals("2026-10", jws.getHeader().getKeyId());
+        assertEquals("HS512", jws.getHeader().getAlgorithm());
+        assertEquals("test@test.com", jws.getBody().getSubject());
+    }
+
+    @Test
+    void parse_shouldAcceptTokensSignedWithRetiredKeys() {
+        // GIVEN
+        JwtKeyRing before = new JwtKeyRing(OLD_SECRET, JwtKeyRing.DEFAULT_KEY_ID, "");
+        String keyIdToken = before.builder().setSubject("kid@test.com").compact();
+        String legacyToken = Jwts.builder()
+            .setSubject("legacy@test.com")
+            .signWith(SignatureAlgorithm.HS512, OLD_SECRET)
+            .compact();
+
+        // WHEN
+        JwtKeyRing after = new JwtKeyRing(NEW_SECRET, "2026-10", "default:" + OLD_SECRET);
+
+        // THEN
+        assertEquals("kid@test.com", after.parse(keyIdToken).getBody().getSubject());
+        assertEquals("legacy@test.com", after.parse(legacyToken).getBody().getSubject());
+        assertEquals("new@test.com",
+            after.parse(after.builder().setSubject("new@test.com").compact()).getBody().getSubject());
+    }
+
+    @Test
+    void parse_shouldRejectUnknownKeyId() {
+        // GIVEN
+        String token = new JwtKeyRing(OLD_SECRET, "retired", "").builder().setSubject("test@test.com").compact();
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, "2026-10", "");
+
+        // THEN
+        assertThrows(SignatureException.class, () -> keyRing.parse(token));
+    }
+
+    @Test
+    void parse_shouldRejectOtherAlgorithms() {
+        // GIVEN
+        String token = Jwts.builder()
+            .setSubject("test@test.com")
+            .signWith(SignatureAlgorithm.HS256, NEW_SECRET)
+            .compact();
+        JwtKeyRing keyRing = new JwtKeyRing(NEW_SECRET, JwtKeyRing.DEFAULT_KEY_ID, "");
+
+        // THEN
+        assertThrows(UnsupportedJwtException.class, () -> keyRing.parse(token));
+    }
+
+    @Test
+    void constructor_shouldRejectMalformedVerificationKeys() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new JwtKeyRing(NEW_SECRET, JwtKeyRing.DEFAULT_KEY_ID, OLD_SECRET));
+    }
+}
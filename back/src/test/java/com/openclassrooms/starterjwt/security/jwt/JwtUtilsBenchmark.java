@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Issuing an access token with the identity claims, and validating it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private UserDetailsImpl userDetails;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtils = new JwtUtils(new JwtKeyRing("benchmarkSecret", JwtKeyRing.DEFAULT_KEY_ID, ""), new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenExpirationMs", 3600000L);
+
+        userDetails = UserDetailsImpl.builder()
+            .id(1L)
+            .username("yoga@studio.com")
+            .firstName("Admin")
+            .lastName("Admin")
+            .admin(true)
+            .tokenVersion(0)
+            .build();
+        token = jwtUtils.generateJwtToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+}
@@ -3,11 +3,15 @@ package com.openclassrooms.starterjwt.security.jwt;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
 
+import org.junit.jupiter.api.AfterEach;
+
 import org.junit.jupiter.api.BeforeEach;
+import org.slf4j.LoggerFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -15,12 +19,21 @@ import org.springframework.security.core.Authentication;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class JwtUtilsTest {
 
     private JwtUtils jwtUtils;
+    private SimpleMeterRegistry meterRegistry;
+    private final Logger logbackLogger = (Logger) LoggerFactory.getLogger(JwtUtils.class);
+    private ListAppender<ILoggingEvent> appender;
     private static final String TEST_SECRET = "testKey123456789";
 
     private String generateTokenHelper(String username, String secret, long expirationMs) {
@@ -34,10 +47,19 @@ class JwtUtilsTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtils = new JwtUtils();
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtils = new JwtUtils(new JwtKeyRing(TEST_SECRET, JwtKeyRing.DEFAULT_KEY_ID, ""), meterRegistry, 0);
+
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenExpirationMs", 60000L);
+
+        appender = new ListAppender<>();
+        appender.start();
+        logbackLogger.addAppender(appender);
+    }
 
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", TEST_SECRET);
-        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+    @AfterEach
+    void tearDown() {
+        logbackLogger.detachAppender(appender);
     }
 
     @Test
@@ -57,6 +79,7 @@ class JwtUtilsTest {
         // THEN
         assertNotNull(token);
         assertTrue(jwtUtils.validateJwtToken(token));
+        assertNotNull(jwtUtils.getValidatedClaims(token).getId());
     }
 
     @Test
@@ -137,4 +160,103 @@ class JwtUtilsTest {
         assertFalse(result);
     }
 
+    @Test
+    void getValidatedClaims_shouldReturnClaims_whenTokenValid() {
+        // GIVEN
+        String token = generateTokenHelper("test@test.com", TEST_SECRET, 60000);
+
+        // WHEN
+        Claims claims = jwtUtils.getValidatedClaims(token);
+
+        // THEN
+        assertNotNull(claims);
+        assertEquals("test@test.com", claims.getSubject());
+    }
+
+    @Test
+    void getValidatedClaims_shouldReturnNull_whenTokenInvalid() {
+        assertNull(jwtUtils.getValidatedClaims("invalid.token.value"));
+    }
+
+    @Test
+    void getUserDetailsFromClaims_shouldRestoreIdentityClaims() {
+        // GIVEN
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+            .id(7L)
+            .username("test@test.com")
+            .firstName("Test")
+            .lastName("Nom")
+            .admin(true)
+            .tokenVersion(3)
+            .password("pwd")
+            .build();
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+
+        // WHEN
+        UserDetailsImpl result = jwtUtils.getUserDetailsFromClaims(jwtUtils.getValidatedClaims(token));
+
+        // THEN
+        assertEquals(7L, result.getId());
+        assertEquals("test@test.com", result.getUsername());
+        assertEquals("Test", result.getFirstName());
+        assertEquals("Nom", result.getLastName());
+        assertTrue(result.getAdmin());
+        assertEquals(3, result.getTokenVersion());
+        assertNull(result.getPassword());
+    }
+
+    @Test
+    void getUserDetailsFromClaims_shouldReturnNull_whenTokenHasNoIdentityClaims() {
+        // GIVEN
+        String token = generateTokenHelper("test@test.com", TEST_SECRET, 60000);
+
+        // THEN
+        assertNull(jwtUtils.getUserDetailsFromClaims(jwtUtils.getValidatedClaims(token)));
+    }
+
+    @Test
+    void getValidatedClaims_shouldTimeValidationByOutcome() {
+        // GIVEN
+        String valid = generateTokenHelper("test@test.com", TEST_SECRET, 60000);
+        String expired = generateTokenHelper("test@test.com", TEST_SECRET, -1000);
+
+        // WHEN
+        jwtUtils.getValidatedClaims(valid);
+        jwtUtils.getValidatedClaims(valid);
+        jwtUtils.getValidatedClaims(expired);
+        jwtUtils.getValidatedClaims("invalid.token.value");
+
+        // THEN
+        assertEquals(2, meterRegistry.get("jwt.validation").tag("outcome", "valid").timer().count());
+        assertEquals(1, meterRegistry.get("jwt.validation").tag("outcome", "expired").timer().count());
+        assertEquals(1, meterRegistry.get("jwt.validation").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    void getValidatedClaims_shouldNotLogExpiredTokensAsErrors() {
+        // GIVEN
+        String expired = generateTokenHelper("test@test.com", TEST_SECRET, -1000);
+
+        // WHEN
+        jwtUtils.getValidatedClaims(expired);
+
+        // THEN
+        assertTrue(appender.list.stream().noneMatch(event -> event.getLevel() == Level.ERROR));
+    }
+
+    @Test
+    void getValidatedClaims_shouldLogOneRejectionPerInterval() {
+        // GIVEN
+        jwtUtils = new JwtUtils(new JwtKeyRing(TEST_SECRET, JwtKeyRing.DEFAULT_KEY_ID, ""), meterRegistry, 60000);
+        String forged = generateTokenHelper("test@test.com", "otherKey", 60000);
+
+        // WHEN
+        jwtUtils.getValidatedClaims("invalid.token.value");
+        jwtUtils.getValidatedClaims(forged);
+        jwtUtils.getValidatedClaims("invalid.token.value");
+
+        // THEN
+        assertEquals(1, appender.list.stream().filter(event -> event.getLevel() == Level.ERROR).count());
+        assertEquals(3, meterRegistry.get("jwt.validation").tag("outcome", "invalid").timer().count());
+    }
 }
@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LogRateLimiterTest {
+
+    @Test
+    void tryAcquire_shouldAllowOneLinePerInterval() {
+        // GIVEN
+        LogRateLimiter limiter = new LogRateLimiter(60000);
+
+        // THEN
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(LogRateLimiter.SUPPRESS, limiter.tryAcquire());
+        assertEquals(LogRateLimiter.SUPPRESS, limiter.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_shouldAlwaysAllow_whenIntervalIsZero() {
+        // GIVEN
+        LogRateLimiter limiter = new LogRateLimiter(0);
+
+        // THEN
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,197 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private TokenRevocationList revocationList;
+
+    private static Date inOneHour() {
+        return new Date(System.currentTimeMillis() + 3600000);
+    }
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(revokedTokenRepository, taskScheduler, 5000, 4, 0);
+    }
+
+    @Test
+    void refresh_shouldOnlyFetchRowsAfterLastSeenId() {
+        // GIVEN
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+            new RevokedToken(1L, "jti-1", inOneHour()),
+            new RevokedToken(2L, "jti-2", inOneHour())));
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(2L)).thenReturn(Collections.singletonList(
+            new RevokedToken(3L, "jti-3", inOneHour())));
+
+        // WHEN
+        revocationList.start();
+        revocationList.refresh();
+
+        // THEN
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertTrue(revocationList.isRevoked("jti-3"));
+        assertFalse(revocationList.isRevoked("jti-4"));
+        assertFalse(revocationList.isRevoked(null));
+        verify(revokedTokenRepository, never()).deleteExpired(any());
+        verify(taskScheduler).scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), eq(Duration.ofMillis(5000)));
+    }
+
+    @Test
+    void refresh_shouldPickUpRowsCommittedBehindTheLastSeenId() {
+        // GIVEN
+        revocationList = new TokenRevocationList(revokedTokenRepository, taskScheduler, 5000, 4, 10);
+        RevokedToken first = new RevokedToken(1L, "jti-1", inOneHour());
+        RevokedToken third = new RevokedToken(3L, "jti-3", inOneHour());
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(0L))
+            .thenReturn(Arrays.asList(first, third))
+            .thenReturn(Arrays.asList(first, new RevokedToken(2L, "jti-2", inOneHour()), third));
+
+        // WHEN
+        revocationList.refresh();
+        revocationList.refresh();
+
+        // THEN
+        assertTrue(revocationList.isRevoked("jti-2"));
+        assertEquals(3, revocationList.size());
+    }
+
+    @Test
+    void refresh_shouldNotHoldTheLockWhileQuerying() {
+        // GIVEN
+        Claims claims = Jwts.claims().setId("jti-1").setExpiration(inOneHour());
+        AtomicBoolean revokedDuringQuery = new AtomicBoolean();
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(0L)).thenAnswer(invocation -> {
+            Thread revoker = new Thread(() -> revocationList.revoke(claims));
+            revoker.start();
+            revoker.join(5000);
+            revokedDuringQuery.set(!revoker.isAlive());
+            return Collections.emptyList();
+        });
+
+        // WHEN
+        revocationList.refresh();
+
+        // THEN
+        assertTrue(revokedDuringQuery.get());
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void stop_shouldCancelScheduledRefresh() {
+        // GIVEN
+        ScheduledFuture<?> refreshTask = mock(ScheduledFuture.class);
+        doReturn(refreshTask).when(taskScheduler)
+            .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+        revocationList.start();
+
+        // WHEN
+        revocationList.stop();
+
+        // THEN
+        verify(refreshTask).cancel(false);
+    }
+
+    @Test
+    void refresh_shouldDropExpiredEntries() {
+        // GIVEN
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+            new RevokedToken(1L, "expired", new Date(System.currentTimeMillis() - 1000)),
+            new RevokedToken(2L, "live", inOneHour())));
+
+        // WHEN
+        revocationList.refresh();
+
+        // THEN
+        assertFalse(revocationList.isRevoked("expired"));
+        assertTrue(revocationList.isRevoked("live"));
+        assertEquals(1, revocationList.size());
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    void revoke_shouldPersistAndApplyImmediately() {
+        // GIVEN
+        Claims claims = Jwts.claims().setId("jti-1").setExpiration(inOneHour());
+
+        // WHEN
+        revocationList.revoke(claims);
+
+        // THEN
+        assertTrue(revocationList.isRevoked("jti-1"));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revoke_shouldTolerateAlreadyRevokedToken() {
+        // GIVEN
+        Claims claims = Jwts.claims().setId("jti-1").setExpiration(inOneHour());
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // WHEN
+        revocationList.revoke(claims);
+
+        // THEN
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void revoke_shouldIgnoreTokensWithoutId() {
+        // WHEN
+        revocationList.revoke(Jwts.claims().setExpiration(inOneHour()));
+
+        // THEN
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revoke_shouldGrowFilterBeyondExpectedTokens() {
+        // WHEN
+        for (int i = 0; i < 20; i++) {
+            revocationList.revoke(Jwts.claims().setId("jti-" + i).setExpiration(inOneHour()));
+        }
+
+        // THEN
+        for (int i = 0; i < 20; i++) {
+            assertTrue(revocationList.isRevoked("jti-" + i));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(2);
+        verifications = new AtomicInteger();
+    }
+
+    private Function<String, Claims> verifier(Claims claims) {
+        return token -> {
+            verifications.incrementAndGet();
+            return claims;
+        };
+    }
+
+    @Test
+    void getValidatedClaims_shouldVerifyOnlyOnce_whenTokenReused() {
+        // GIVEN
+        Claims claims = Jwts.claims().setSubject("test@test.com").setExpiration(new Date(System.currentTimeMillis() + 60000));
+
+        // WHEN
+        Claims first = cache.getValidatedClaims("token", verifier(claims));
+        Claims second = cache.getValidatedClaims("token", verifier(claims));
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void getValidatedClaims_shouldNotCacheInvalidTokens() {
+        // WHEN
+        cache.getValidatedClaims("invalid", verifier(null));
+        Claims result = cache.getValidatedClaims("invalid", verifier(null));
+
+        // THEN
+        assertNull(result);
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getValidatedClaims_shouldNotCacheTokensWithoutExpiration() {
+        // GIVEN
+        Claims claims = Jwts.claims().setSubject("test@test.com");
+
+        // WHEN
+        cache.getValidatedClaims("token", verifier(claims));
+        cache.getValidatedClaims("token", verifier(claims));
+
+        // THEN
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void getValidatedClaims_shouldReverify_onceTokenExpired() {
+        // GIVEN
+        Claims claims = Jwts.claims().setSubject("test@test.com").setExpiration(new Date(System.currentTimeMillis() - 1));
+
+        // WHEN
+        cache.getValidatedClaims("token", verifier(claims));
+        cache.getValidatedClaims("token", verifier(claims));
+
+        // THEN
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getValidatedClaims_shouldStayBounded() {
+        // GIVEN
+        Claims claims = Jwts.claims().setSubject("test@test.com").setExpiration(new Date(System.currentTimeMillis() + 60000));
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            cache.getValidatedClaims("token" + i, verifier(claims));
+        }
+
+        // THEN
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_shouldCompleteOnHashingThreadWithoutBlockingCaller() throws Exception {
+        // GIVEN
+        CountDownLatch release = new CountDownLatch(1);
+
+        // WHEN
+        CompletableFuture<String> future = executor.submit(() -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Thread.currentThread().getName();
+        });
+
+        // THEN
+        assertFalse(future.isDone());
+        release.countDown();
+        String threadName = future.get(10, TimeUnit.SECONDS);
+
+        // THEN
+        assertTrue(threadName.startsWith("password-hashing-"));
+        assertEquals(1.0, meterRegistry.get("executor.pool.max").tag("name", "passwordHashing")
+            .gauge().value());
+    }
+
+    @Test
+    void submit_shouldCompleteExceptionallyWithRuntimeExceptionFromTask() {
+        // GIVEN
+        BadCredentialsException failure = new BadCredentialsException("Bad credentials");
+
+        // WHEN
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw failure;
+        });
+
+        // THEN
+        assertSame(failure, assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    void submit_shouldWrapCheckedExceptionFromTask() {
+        // WHEN
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw new IOException("boom");
+        });
+
+        // THEN
+        assertTrue(assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS)).getCause()
+            instanceof IllegalStateException);
+    }
+
+    @Test
+    void submit_shouldRejectWithServiceUnavailable_whenPoolAndQueueFull() throws Exception {
+        // GIVEN
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.submit(() -> true);
+            assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value());
+
+            // THEN
+            assertThrows(ServiceUnavailableException.class, () -> executor.submit(() -> true));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenVersionService(userRepository, 100, 60000);
+    }
+
+    @Test
+    void isCurrent_shouldLookUpVersionOnce() {
+        // GIVEN
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(2));
+
+        // THEN
+        assertTrue(service.isCurrent(1L, 2));
+        assertFalse(service.isCurrent(1L, 1));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_shouldReloadAfterEvict() {
+        // GIVEN
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0), Optional.of(1));
+        assertTrue(service.isCurrent(1L, 0));
+
+        // WHEN
+        service.evict(1L);
+
+        // THEN
+        assertFalse(service.isCurrent(1L, 0));
+        assertTrue(service.isCurrent(1L, 1));
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenUserMissing() {
+        // GIVEN
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        // THEN
+        assertFalse(service.isCurrent(1L, 0));
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenTokenHasNoVersion() {
+        assertFalse(service.isCurrent(1L, null));
+        verify(userRepository, never()).findTokenVersionById(any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserDetailsCache cache;
+
+    private AtomicInteger loads;
+
+    private Function<String, UserDetailsImpl> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserDetailsCache(100, 60000, meterRegistry);
+        loads = new AtomicInteger();
+        loader = email -> {
+            loads.incrementAndGet();
+            return UserDetailsImpl.builder().id(1L).username(email).build();
+        };
+    }
+
+    @Test
+    void get_shouldLoadOnceAndRecordHitsAndMisses() {
+        // WHEN
+        UserDetailsImpl first = cache.get("test@test.com", loader);
+        UserDetailsImpl second = cache.get("test@test.com", loader);
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "userDetails", "result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "userDetails", "result", "miss")
+            .functionCounter().count());
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        // GIVEN
+        cache.get("test@test.com", loader);
+
+        // WHEN
+        cache.evict("test@test.com");
+        cache.get("test@test.com", loader);
+
+        // THEN
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictById_shouldForceReload() {
+        // GIVEN
+        cache.get("test@test.com", loader);
+
+        // WHEN
+        cache.evictById(1L);
+        cache.get("test@test.com", loader);
+
+        // THEN
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldReloadAfterTtl() throws InterruptedException {
+        // GIVEN
+        cache = new UserDetailsCache(100, 1, meterRegistry);
+        cache.get("test@test.com", loader);
+
+        // WHEN
+        Thread.sleep(10);
+        cache.get("test@test.com", loader);
+
+        // THEN
+        assertEquals(2, loads.get());
+    }
+}
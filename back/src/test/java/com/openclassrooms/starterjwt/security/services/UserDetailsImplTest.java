@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import com.openclassrooms.starterjwt.models.User;
+
 class UserDetailsImplTest {
 
     @Test
@@ -108,4 +110,24 @@ class UserDetailsImplTest {
         // THEN
         assertNotEquals(user1, user2);
     }
+
+    @Test
+    void build_shouldCopyIdentityFromUser() {
+        // GIVEN
+        User user = new User("test@test.com", "Nom", "Test", "pwd", true);
+        user.setId(1L);
+        user.setTokenVersion(3);
+
+        // WHEN
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+
+        // THEN
+        assertEquals(1L, userDetails.getId());
+        assertEquals("test@test.com", userDetails.getUsername());
+        assertEquals("Test", userDetails.getFirstName());
+        assertEquals("Nom", userDetails.getLastName());
+        assertTrue(userDetails.getAdmin());
+        assertEquals(3, userDetails.getTokenVersion());
+        assertEquals("pwd", userDetails.getPassword());
+    }
 }
@@ -3,6 +3,9 @@ package com.openclassrooms.starterjwt.security.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
@@ -18,6 +21,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class UserDetailsServiceImplTest {
 
@@ -28,7 +33,7 @@ class UserDetailsServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        service = new UserDetailsServiceImpl(userRepository);
+        service = new UserDetailsServiceImpl(userRepository, new UserDetailsCache(100, 60000, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -38,16 +43,23 @@ class UserDetailsServiceImplTest {
         user.setId(1L);
         user.setEmail("test@test.com");
         user.setPassword("pwd");
+        user.setFirstName("Test");
+        user.setLastName("Nom");
+        user.setAdmin(true);
 
         when(userRepository.findByEmail("test@test.com"))
             .thenReturn(Optional.of(user));
 
         // WHEN
-        UserDetails result = service.loadUserByUsername("test@test.com");
+        UserDetailsImpl result = (UserDetailsImpl) service.loadUserByUsername("test@test.com");
 
         // THEN
         assertNotNull(result);
         assertEquals("test@test.com", result.getUsername());
+        assertEquals(1L, result.getId());
+        assertEquals("Test", result.getFirstName());
+        assertEquals("Nom", result.getLastName());
+        assertTrue(result.getAdmin());
     }
 
     @Test
@@ -60,4 +72,40 @@ class UserDetailsServiceImplTest {
         assertThrows(UsernameNotFoundException.class,
             () -> service.loadUserByUsername("test@test.com"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserByUsername_shouldQueryRepositoryOnce_whenCalledTwice() {
+        // GIVEN
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@test.com");
+        user.setPassword("pwd");
+
+        when(userRepository.findByEmail("test@test.com"))
+            .thenReturn(Optional.of(user));
+
+        // WHEN
+        service.loadUserByUsername("test@test.com");
+        UserDetails result = service.loadUserByUsername("test@test.com");
+
+        // THEN
+        assertEquals("test@test.com", result.getUsername());
+        verify(userRepository, times(1)).findByEmail("test@test.com");
+    }
+
+    @Test
+    void loadUserByUsername_shouldNotCacheMissingUser() {
+        // GIVEN
+        when(userRepository.findByEmail("test@test.com"))
+            .thenReturn(Optional.empty());
+
+        // WHEN
+        assertThrows(UsernameNotFoundException.class,
+            () -> service.loadUserByUsername("test@test.com"));
+        assertThrows(UsernameNotFoundException.class,
+            () -> service.loadUserByUsername("test@test.com"));
+
+        // THEN
+        verify(userRepository, times(2)).findByEmail("test@test.com");
+    }
+}
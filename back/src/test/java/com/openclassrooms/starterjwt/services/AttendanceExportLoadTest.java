@@ -0,0 +1,138 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.openclassrooms.starterjwt.IdGenerators;
+
+/**
+ * Exports sessions x users participations (a million by default) as NDJSON from a child JVM with a small heap:
+ * buffering the export anywhere would need several times that heap and fail with an OutOfMemoryError.
+ * Opt-in and offline: mvn -o -Pload-test test -Dtest=AttendanceExportLoadTest [-Dload.exportSessions=2000 -Dload.exportHeap=32m]
+ */
+@Tag("load")
+class AttendanceExportLoadTest {
+
+    private static final int SESSIONS = Integer.getInteger("load.exportSessions", 1000);
+    private static final int USERS = Integer.getInteger("load.exportUsers", 1000);
+    private static final String HEAP = System.getProperty("load.exportHeap", "64m");
+
+    @Test
+    void export_shouldStreamAMillionRowsInASmallHeap() throws Exception {
+        // GIVEN
+        Path directory = Files.createTempDirectory("attendance-export");
+        Path log = directory.resolve("output.log");
+        Process process = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Xmx" + HEAP,
+            "-cp", System.getProperty("java.class.path"),
+            LargeExport.class.getName(),
+            directory.resolve("exportdb").toString(),
+            Integer.toString(SESSIONS),
+            Integer.toString(USERS))
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+
+        // WHEN
+        boolean finished = process.waitFor(10, TimeUnit.MINUTES);
+
+        // THEN
+        String output = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+        String summary = output.substring(output.lastIndexOf("rows="));
+        System.out.println(summary);
+        assertTrue(finished, output);
+        assertEquals(0, process.exitValue(), output);
+        long expected = (long) SESSIONS * USERS;
+        assertTrue(summary.startsWith("rows=" + expected + " lines=" + expected + " "), summary);
+        deleteRecursively(directory.toFile());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Child JVM entry point: seeds a file-based H2 database (lazy query execution, so H2 does not materialize the
+     * result either) and exports it to a stream that only counts lines.
+     */
+    static class LargeExport {
+        public static void main(String[] args) throws IOException {
+            int sessions = Integer.parseInt(args[1]);
+            int users = Integer.parseInt(args[2]);
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:file:" + args[0] + ";MODE=MySQL;LAZY_QUERY_EXECUTION=1");
+            dataSource.setUser("sa");
+            Flyway.configure().dataSource(dataSource).load().migrate();
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            long firstUser = IdGenerators.reserve(jdbcTemplate, "USERS", users);
+            jdbcTemplate.update("INSERT INTO USERS (id, email, last_name, first_name, password) "
+                + "SELECT ? + X - 1, CONCAT('export', X, '@studio.com'), 'Export', CONCAT('User', X), 'pwd' "
+                + "FROM SYSTEM_RANGE(1, ?)", firstUser, users);
+            long firstSession = IdGenerators.reserve(jdbcTemplate, "SESSIONS", sessions);
+            jdbcTemplate.update("INSERT INTO SESSIONS (id, name, description, date, teacher_id) "
+                + "SELECT ? + X - 1, CONCAT('Session ', X), 'Export', CURRENT_TIMESTAMP, 1 FROM SYSTEM_RANGE(1, ?)",
+                firstSession, sessions);
+            long lastSession = firstSession + sessions - 1;
+            // one transaction per slice of sessions keeps H2's undo log small
+            for (long from = firstSession; from <= lastSession; from += 50) {
+                jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) "
+                    + "SELECT s.id, u.id FROM SESSIONS s, USERS u "
+                    + "WHERE s.id BETWEEN ? AND ? AND u.email LIKE 'export%'", from, Math.min(from + 49, lastSession));
+            }
+
+            LineCountingOutputStream out = new LineCountingOutputStream();
+            long start = System.nanoTime();
+            long rows = new AttendanceExportService(dataSource, 1000).export(AttendanceExportService.Format.NDJSON, out);
+
+            System.out.println("rows=" + rows + " lines=" + out.lines + " bytes=" + out.bytes
+                + " ms=" + (System.nanoTime() - start) / 1_000_000
+                + " maxHeapMb=" + Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        }
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+        private long lines;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
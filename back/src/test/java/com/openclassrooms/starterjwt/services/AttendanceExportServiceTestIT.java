@@ -0,0 +1,120 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.IdGenerators;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AttendanceExportService.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:exportdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class AttendanceExportServiceTestIT {
+
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long margotId;
+    private Long sessionWithTeacher;
+    private Long sessionWithoutTeacher;
+    private Long userA;
+    private Long userB;
+
+    @BeforeEach
+    void setUp() {
+        margotId = jdbcTemplate.queryForObject("SELECT id FROM TEACHERS WHERE first_name = 'Margot'", Long.class);
+        userA = IdGenerators.reserve(jdbcTemplate, "USERS", 2);
+        userB = userA + 1;
+        jdbcTemplate.update("INSERT INTO USERS (id, email, last_name, first_name, password) VALUES "
+            + "(?, 'a@export.com', 'Doe, \"Jr\"', 'Ann', 'pwd'), (?, 'b@export.com', 'Smith', '=cmd()', 'pwd')",
+            userA, userB);
+
+        sessionWithTeacher = IdGenerators.reserve(jdbcTemplate, "SESSIONS", 2);
+        sessionWithoutTeacher = sessionWithTeacher + 1;
+        jdbcTemplate.update("INSERT INTO SESSIONS (id, name, description, date, teacher_id) VALUES (?, ?, 'd', ?, ?)",
+            sessionWithTeacher, "Yoga\nmorning", Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")), margotId);
+        jdbcTemplate.update("INSERT INTO SESSIONS (id, name, description, date) VALUES (?, 'Pilates', 'd', NULL)",
+            sessionWithoutTeacher);
+
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?), (?, ?), (?, ?)",
+            sessionWithTeacher, userB, sessionWithTeacher, userA, sessionWithoutTeacher, userA);
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerParticipationInKeyOrder() throws IOException {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        long rows = attendanceExportService.export(AttendanceExportService.Format.NDJSON, out);
+
+        // THEN
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n", -1);
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals("", lines[3]);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(sessionWithTeacher.longValue(), first.get("session_id").asLong());
+        assertEquals("Yoga\nmorning", first.get("session_name").asText());
+        assertEquals("2024-01-01T10:00:00Z", first.get("session_date").asText());
+        assertEquals(margotId.longValue(), first.get("teacher_id").asLong());
+        assertEquals("Margot", first.get("teacher_first_name").asText());
+        assertEquals(userA.longValue(), first.get("user_id").asLong());
+        assertEquals("Doe, \"Jr\"", first.get("user_last_name").asText());
+        assertEquals(userB.longValue(), objectMapper.readTree(lines[1]).get("user_id").asLong());
+
+        JsonNode withoutTeacher = objectMapper.readTree(lines[2]);
+        assertTrue(withoutTeacher.get("teacher_id").isNull());
+        assertTrue(withoutTeacher.get("session_date").isNull());
+    }
+
+    @Test
+    void export_shouldWriteQuotedCsvWithHeader() throws IOException {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        long rows = attendanceExportService.export(AttendanceExportService.Format.CSV, out);
+
+        // THEN
+        List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8.name()).split("\r\n", -1));
+        assertEquals(3, rows);
+        assertEquals("session_id,session_name,session_date,teacher_id,teacher_first_name,teacher_last_name,"
+            + "user_id,user_first_name,user_last_name", lines.get(0));
+        assertEquals(sessionWithTeacher + ",\"Yoga\nmorning\",2024-01-01T10:00:00Z," + margotId + ",Margot,DELAHAYE,"
+            + userA + ",Ann,\"Doe, \"\"Jr\"\"\"", lines.get(1));
+        assertEquals(sessionWithTeacher + ",\"Yoga\nmorning\",2024-01-01T10:00:00Z," + margotId + ",Margot,DELAHAYE,"
+            + userB + ",'=cmd(),Smith", lines.get(2));
+        assertEquals(sessionWithoutTeacher + ",Pilates,,,,," + userA + ",Ann,\"Doe, \"\"Jr\"\"\"", lines.get(3));
+        assertEquals("", lines.get(4));
+    }
+}
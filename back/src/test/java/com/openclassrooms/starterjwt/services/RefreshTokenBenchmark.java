@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Sustained /api/auth/refresh throughput against the real schema: every operation consumes the
+ * thread's current refresh token, stores its replacement and signs a new access token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RefreshTokenBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        ConfigurableApplicationContext context;
+        RefreshTokenService refreshTokenService;
+        JwtUtils jwtUtils;
+        Long userId;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:refreshbench;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.driverClassName=org.h2.Driver",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.show-sql=false");
+            refreshTokenService = context.getBean(RefreshTokenService.class);
+            jwtUtils = context.getBean(JwtUtils.class);
+            userId = context.getBean(UserRepository.class).findByEmail("yoga@studio.com").get().getId();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String refreshToken;
+
+        @Setup(Level.Trial)
+        public void login(Application application) {
+            refreshToken = application.refreshTokenService.create(application.userId);
+        }
+    }
+
+    @Benchmark
+    public String refresh(Application application, Client client) {
+        RefreshTokenService.Rotation rotation = application.refreshTokenService.rotate(client.refreshToken)
+            .orElseThrow(IllegalStateException::new);
+        client.refreshToken = rotation.getRefreshToken();
+        return application.jwtUtils.generateJwtToken(UserDetailsImpl.build(rotation.getUser()));
+    }
+}
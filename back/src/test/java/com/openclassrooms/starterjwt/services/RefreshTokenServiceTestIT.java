@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(RefreshTokenService.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.session.events.log=false",
+    "oc.app.refreshTokenExpirationMs=60000"
+})
+class RefreshTokenServiceTestIT {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("refresh@test.com", "Nom", "Refresh", "pwd", false);
+        entityManager.persist(user);
+        entityManager.flush();
+    }
+
+    @Test
+    void rotate_shouldReplaceTokenWithOneLookup() {
+        // GIVEN
+        String token = refreshTokenService.create(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // WHEN
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token).orElse(null);
+
+        // THEN
+        assertEquals("refresh@test.com", rotation.getUser().getEmail());
+        assertNotEquals(token, rotation.getRefreshToken());
+        assertEquals(1, statistics.getQueryStatistics(
+            "SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash").getExecutionCount());
+        // lookup, consume, purge expired, insert replacement
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    void rotate_shouldRejectReusedToken() {
+        // GIVEN
+        String token = refreshTokenService.create(user.getId());
+        String next = refreshTokenService.rotate(token).get().getRefreshToken();
+
+        // THEN
+        assertFalse(refreshTokenService.rotate(token).isPresent());
+        assertTrue(refreshTokenService.rotate(next).isPresent());
+        assertFalse(refreshTokenService.rotate("unknown").isPresent());
+    }
+
+    @Test
+    void rotate_shouldRejectAndDeleteExpiredToken() {
+        // GIVEN
+        String token = refreshTokenService.create(user.getId());
+        entityManager.flush();
+        entityManager.createQuery("UPDATE RefreshToken t SET t.expiresAt = :past")
+            .setParameter("past", new Date(System.currentTimeMillis() - 1000))
+            .executeUpdate();
+        entityManager.clear();
+
+        // THEN
+        assertFalse(refreshTokenService.rotate(token).isPresent());
+        assertEquals(0, refreshTokenRepository.count());
+    }
+
+    @Test
+    void revokeAll_shouldDeleteEveryTokenOfTheUser() {
+        // GIVEN
+        refreshTokenService.create(user.getId());
+        refreshTokenService.create(user.getId());
+
+        // WHEN
+        refreshTokenService.revokeAll(user.getId());
+
+        // THEN
+        assertEquals(0, refreshTokenRepository.count());
+    }
+}
@@ -0,0 +1,217 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.openclassrooms.starterjwt.dto.ETags;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SessionCatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SessionCatalogCache cache;
+
+    private AtomicInteger catalogLoads;
+
+    private Supplier<List<SessionDto>> catalogLoader;
+
+    private AtomicInteger sessionLoads;
+
+    private Function<Long, SessionDto> sessionLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SessionCatalogCache(100, 60000, meterRegistry);
+        catalogLoads = new AtomicInteger();
+        catalogLoader = () -> {
+            catalogLoads.incrementAndGet();
+            return new ArrayList<>(Arrays.asList(dto(1L), dto(2L)));
+        };
+        sessionLoads = new AtomicInteger();
+        sessionLoader = id -> {
+            sessionLoads.incrementAndGet();
+            return id > 0 ? dto(id) : null;
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getAll_shouldLoadOnceAndRecordHitsMissesAndRebuildTime() {
+        // WHEN
+        SessionCatalogCache.Tagged<List<SessionDto>> first = cache.getAll(catalogLoader);
+        SessionCatalogCache.Tagged<List<SessionDto>> second = cache.getAll(catalogLoader);
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(1, catalogLoads.get());
+        assertEquals(ETags.ofSessions(Arrays.asList(dto(1L), dto(2L))), first.getETag());
+        assertThrows(UnsupportedOperationException.class, () -> first.getValue().add(dto(3L)));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "sessionCatalog", "result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "sessionCatalog", "result", "miss")
+            .functionCounter().count());
+        assertEquals(1, meterRegistry.get("session.catalog.rebuild").timer().count());
+    }
+
+    @Test
+    void get_shouldLoadOnceAndNotCacheMissingSessions() {
+        // WHEN
+        cache.get(1L, sessionLoader);
+        SessionCatalogCache.Tagged<SessionDto> cached = cache.get(1L, sessionLoader);
+        SessionCatalogCache.Tagged<SessionDto> missing = cache.get(-1L, sessionLoader);
+        cache.get(-1L, sessionLoader);
+
+        // THEN
+        assertEquals(1L, cached.getValue().getId());
+        assertEquals(ETags.ofSession(dto(1L)), cached.getETag());
+        assertNull(missing);
+        assertEquals(3, sessionLoads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "sessions", "result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void evict_shouldDropSessionAndCatalogImmediately_whenNoTransaction() {
+        // GIVEN
+        cache.getAll(catalogLoader);
+        cache.get(1L, sessionLoader);
+        cache.get(2L, sessionLoader);
+
+        // WHEN
+        cache.evict(1L);
+        cache.getAll(catalogLoader);
+        cache.get(1L, sessionLoader);
+        cache.get(2L, sessionLoader);
+
+        // THEN
+        assertEquals(2, catalogLoads.get());
+        assertEquals(3, sessionLoads.get());
+    }
+
+    @Test
+    void evict_shouldWaitForCommit_whenInTransaction() {
+        // GIVEN
+        cache.getAll(catalogLoader);
+        cache.get(1L, sessionLoader);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // WHEN
+        cache.evict(1L);
+        cache.getAll(catalogLoader);
+        cache.get(1L, sessionLoader);
+
+        // THEN
+        assertEquals(1, catalogLoads.get());
+        assertEquals(1, sessionLoads.get());
+
+        // WHEN
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        cache.getAll(catalogLoader);
+        cache.get(1L, sessionLoader);
+
+        // THEN
+        assertEquals(2, catalogLoads.get());
+        assertEquals(2, sessionLoads.get());
+    }
+
+    @Test
+    void evict_shouldNotLetAnInFlightRebuildServeTheOldCatalog() throws Exception {
+        // GIVEN
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<SessionCatalogCache.Tagged<List<SessionDto>>> stale = executor.submit(() -> cache.getAll(() -> {
+            loading.countDown();
+            await(evicted);
+            return Arrays.asList(dto(1L));
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+
+        // WHEN
+        cache.evict(1L);
+        evicted.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+        List<SessionDto> fresh = cache.getAll(catalogLoader).getValue();
+        executor.shutdown();
+
+        // THEN
+        assertEquals(2, fresh.size());
+        assertEquals(1, catalogLoads.get());
+    }
+
+    @Test
+    void getAll_shouldRunASingleRebuild_whenManyReadersMissTogether() throws Exception {
+        // GIVEN
+        int readers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<SessionDto>> slowLoader = () -> {
+            await(release);
+            return catalogLoader.get();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        List<Future<SessionCatalogCache.Tagged<List<SessionDto>>>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(executor.submit(() -> {
+                await(start);
+                return cache.getAll(slowLoader);
+            }));
+        }
+
+        // WHEN
+        start.countDown();
+        Thread.sleep(50);
+        release.countDown();
+
+        // THEN
+        for (Future<SessionCatalogCache.Tagged<List<SessionDto>>> result : results) {
+            assertEquals(2, result.get(5, TimeUnit.SECONDS).getValue().size());
+        }
+        executor.shutdown();
+        assertEquals(1, catalogLoads.get());
+    }
+
+    private static SessionDto dto(Long id) {
+        SessionDto dto = new SessionDto();
+        dto.setId(id);
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.validation.Validation;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse;
+
+/**
+ * Imports a term's worth of sessions (10k by default) as NDJSON into a migrated H2 database and checks it finishes
+ * within a few seconds.
+ * Opt-in and offline: mvn -o -Pload-test test -Dtest=SessionImportLoadTest [-Dload.importSessions=50000 -Dload.importMaxMs=20000]
+ */
+@Tag("load")
+class SessionImportLoadTest {
+
+    private static final int SESSIONS = Integer.getInteger("load.importSessions", 10_000);
+    private static final long MAX_MS = Long.getLong("load.importMaxMs", 10_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("load.importChunkSize", 1000);
+
+    @Test
+    void importSessions_shouldImportTenThousandSessionsInSeconds() throws IOException {
+        // GIVEN
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:importload;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long teacherId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM TEACHERS", Long.class);
+        long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM USERS", Long.class);
+
+        SessionImportService sessionImportService = new SessionImportService(dataSource,
+            new DataSourceTransactionManager(dataSource),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            mock(SessionCatalogCache.class),
+            CHUNK_SIZE);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < SESSIONS; i++) {
+            ndjson.append("{\"name\": \"Session ").append(i).append("\", \"description\": \"Load\", \"date\": ")
+                .append(1_700_000_000_000L + i * 60_000L).append(", \"teacher_id\": ").append(teacherId)
+                .append(", \"users\": [").append(userId).append("]}\n");
+        }
+
+        // WHEN
+        long start = System.nanoTime();
+        SessionImportResponse response = sessionImportService.importSessions(
+            new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // THEN
+        System.out.println("sessions=" + response.getImported() + " ms=" + elapsedMs);
+        assertEquals(SESSIONS, response.getImported());
+        assertTrue(response.getErrors().isEmpty(), response.getErrors().toString());
+        assertEquals(SESSIONS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+        assertTrue(elapsedMs < MAX_MS, "imported " + SESSIONS + " sessions in " + elapsedMs + " ms");
+    }
+}
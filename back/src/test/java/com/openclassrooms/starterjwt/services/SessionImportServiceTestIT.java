@@ -0,0 +1,190 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.IdGenerators;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.SessionImportResponse;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SessionImportService.class, JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:importdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "oc.app.importChunkSize=500"
+})
+class SessionImportServiceTestIT {
+
+    private static final int SESSION_COUNT = 10_000;
+
+    @Autowired
+    private SessionImportService sessionImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @MockBean
+    private SessionCatalogCache sessionCatalogCache;
+
+    private Long margotId;
+    private Long userA;
+    private Long userB;
+
+    @BeforeEach
+    void setUp() {
+        margotId = jdbcTemplate.queryForObject("SELECT id FROM TEACHERS WHERE first_name = 'Margot'", Long.class);
+        userA = IdGenerators.reserve(jdbcTemplate, "USERS", 2);
+        userB = userA + 1;
+        jdbcTemplate.update("INSERT INTO USERS (id, email, last_name, first_name, password) VALUES "
+            + "(?, 'a@import.com', 'Doe', 'Ann', 'pwd'), (?, 'b@import.com', 'Smith', 'Bob', 'pwd')", userA, userB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE");
+        jdbcTemplate.update("DELETE FROM SESSIONS");
+        jdbcTemplate.update("DELETE FROM USERS WHERE email LIKE '%@import.com'");
+    }
+
+    @Test
+    void importSessions_shouldInsertTenThousandNdjsonSessionsWithTheirParticipants() throws IOException {
+        // GIVEN
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            ndjson.append(session("Session " + i, "Imported", 1_700_000_000_000L + i * 60_000L, margotId,
+                i % 2 == 0 ? userA + ", " + userB : String.valueOf(userA))).append('\n');
+        }
+
+        // WHEN
+        SessionImportResponse response = sessionImportService.importSessions(stream(ndjson.toString()));
+
+        // THEN
+        assertEquals(SESSION_COUNT, response.getImported());
+        assertTrue(response.getErrors().isEmpty());
+        assertEquals(SESSION_COUNT, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SESSIONS", Integer.class));
+        assertEquals(SESSION_COUNT / 2 * 3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE p JOIN SESSIONS s "
+            + "ON s.id = p.session_id WHERE s.name = 'Session 0'", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SESSIONS WHERE created_at IS NULL", Integer.class));
+        verify(sessionCatalogCache, atLeastOnce()).evict(null);
+    }
+
+    @Test
+    void importSessions_shouldReportRejectedRowsAndKeepTheOthers() throws IOException {
+        // GIVEN
+        char[] tooLongForTheColumn = new char[2100];
+        Arrays.fill(tooLongForTheColumn, 'x');
+        String json = "[" + String.join(",",
+            session("Valid first", "d", 0L, margotId, String.valueOf(userA)),
+            "{\"description\": \"d\", \"date\": 0, \"teacher_id\": " + margotId + "}",
+            session("Unknown teacher", "d", 0L, -1L, ""),
+            session("Unknown user", "d", 0L, margotId, userB + ", -5"),
+            session("Description too long", new String(tooLongForTheColumn), 0L, margotId, ""),
+            "{\"name\": \"Bad date\", \"description\": \"d\", \"date\": \"tomorrow\", \"teacher_id\": " + margotId + "}",
+            session("Valid last", "d", 0L, margotId, userA + ", " + userA)) + "]";
+
+        // WHEN
+        SessionImportResponse response = sessionImportService.importSessions(stream(json));
+
+        // THEN
+        assertEquals(2, response.getImported());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), response.getErrors().stream()
+            .map(SessionImportResponse.RowError::getRow)
+            .collect(Collectors.toList()));
+        List<String> messages = response.getErrors().stream()
+            .map(SessionImportResponse.RowError::getMessage)
+            .collect(Collectors.toList());
+        assertEquals("name must not be blank", messages.get(0));
+        assertEquals("Unknown teacher id: -1", messages.get(1));
+        assertEquals("Unknown user ids: [-5]", messages.get(2));
+        assertTrue(messages.get(3).startsWith("Rejected by the database: "));
+        assertTrue(messages.get(4).startsWith("Invalid value: "));
+        assertEquals(Arrays.asList("Valid first", "Valid last"),
+            jdbcTemplate.queryForList("SELECT name FROM SESSIONS ORDER BY id", String.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+    }
+
+    @Test
+    void importSessions_shouldReserveIdsFromTheSameBlocksAsTheJpaGenerator() throws IOException {
+        // GIVEN
+        Session created = sessionRepository.save(Session.builder()
+            .name("Created through JPA")
+            .description("d")
+            .date(new Date(0))
+            .build());
+
+        // WHEN
+        sessionImportService.importSessions(stream(session("Imported", "d", 0L, margotId, "")));
+        Session createdAfter = sessionRepository.save(Session.builder()
+            .name("Created after the import")
+            .description("d")
+            .date(new Date(0))
+            .build());
+
+        // THEN
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM SESSIONS", Long.class);
+        assertEquals(3, ids.size());
+        assertEquals(3, new HashSet<>(ids).size());
+        assertTrue(ids.contains(created.getId()));
+        assertTrue(ids.contains(createdAfter.getId()));
+    }
+
+    @Test
+    void importSessions_shouldStopAtMalformedJsonAndKeepWhatWasRead() throws IOException {
+        // GIVEN
+        String json = "[" + session("Valid", "d", 0L, margotId, "") + ", {\"name\": ";
+
+        // WHEN
+        SessionImportResponse response = sessionImportService.importSessions(stream(json));
+
+        // THEN
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(1, response.getErrors().get(0).getRow());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Malformed JSON: "));
+    }
+
+    private static String session(String name, String description, long date, Long teacherId, String users) {
+        return "{\"name\": \"" + name + "\", \"description\": \"" + description + "\", \"date\": " + date
+            + ", \"teacher_id\": " + teacherId + ", \"users\": [" + users + "]}";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,7 +3,7 @@ package com.openclassrooms.starterjwt.services;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,10 +11,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,11 +34,14 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionCatalogCache sessionCatalogCache;
+
     private SessionService sessionService;
 
     @BeforeEach
     void setUp() {
-        sessionService = new SessionService(sessionRepository, userRepository);
+        sessionService = new SessionService(sessionRepository, userRepository, sessionCatalogCache);
     }
 
     @Test
@@ -62,6 +69,7 @@ class SessionServiceTest {
 
         // THEN
         verify(sessionRepository).deleteById(sessionId);
+        verify(sessionCatalogCache).evict(sessionId);
     }
 
     @Test
@@ -79,6 +87,85 @@ class SessionServiceTest {
         verify(sessionRepository).findAll();
     }
 
+    @Test
+    void findPage_shouldReturnFirstPage_whenNoCursor() {
+        // GIVEN
+        List<Session> sessions = List.of(new Session(), new Session());
+
+        when(sessionRepository.findAllByOrderByDateAscIdAsc(PageRequest.of(0, 2))).thenReturn(sessions);
+
+        // WHEN
+        List<Session> result = sessionService.findPage(null, 2);
+
+        // THEN
+        assertEquals(2, result.size());
+        verify(sessionRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    @Test
+    void findPage_shouldSeekAfterCursor() {
+        // GIVEN
+        SessionCursor cursor = new SessionCursor(new Date(1000), 5L);
+        List<Session> sessions = List.of(new Session());
+
+        when(sessionRepository.findPageAfter(new Date(1000), 5L, PageRequest.of(0, 10))).thenReturn(sessions);
+
+        // WHEN
+        List<Session> result = sessionService.findPage(cursor, 10);
+
+        // THEN
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void findParticipantIds_shouldGroupUserIdsBySession() {
+        // GIVEN
+        Session session1 = new Session();
+        session1.setId(1L);
+        Session session2 = new Session();
+        session2.setId(2L);
+
+        when(sessionRepository.findParticipantIds(List.of(1L, 2L))).thenReturn(List.of(
+            new Object[] {1L, 10L},
+            new Object[] {1, 20},
+            new Object[] {2L, 10L}));
+
+        // WHEN
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(List.of(session1, session2));
+
+        // THEN
+        assertEquals(List.of(10L, 20L), result.get(1L));
+        assertEquals(List.of(10L), result.get(2L));
+    }
+
+    @Test
+    void findParticipantIds_shouldQueryInBatches() {
+        // GIVEN
+        List<Session> sessions = new ArrayList<>();
+        for (long id = 1; id <= SessionService.PARTICIPANT_BATCH_SIZE + 1; id++) {
+            Session session = new Session();
+            session.setId(id);
+            sessions.add(session);
+        }
+
+        // WHEN
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(sessions);
+
+        // THEN
+        assertTrue(result.isEmpty());
+        verify(sessionRepository, times(2)).findParticipantIds(any());
+    }
+
+    @Test
+    void findParticipantIds_shouldNotQuery_whenNoSessions() {
+        // WHEN
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(Collections.emptyList());
+
+        // THEN
+        assertTrue(result.isEmpty());
+        verify(sessionRepository, never()).findParticipantIds(any());
+    }
+
     @Test
     void getById_shouldReturnSession_whenExists() {
         // GIVEN
@@ -125,131 +212,89 @@ class SessionServiceTest {
         assertNotNull(result);
         assertEquals(sessionId, session.getId());
         verify(sessionRepository).save(session);
+        verify(sessionCatalogCache).evict(sessionId);
     }
 
     @Test
-    void participate_shouldAddUserToSession() {
+    void participate_shouldInsertParticipationInOneStatement() {
         // GIVEN
-        User user = new User();
-        Long userId = 2L;
-        user.setId(userId);
-
-        Session session = new Session();
-        Long sessionId = 1L;
-        session.setId(sessionId);
-        session.setUsers(new ArrayList<>());
-
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(1);
 
         // WHEN
-        sessionService.participate(sessionId, userId);
+        sessionService.participate(1L, 2L);
 
         // THEN
-        assertEquals(1, session.getUsers().size());
-        verify(sessionRepository).save(session);
+        verify(sessionRepository, never()).findById(any());
+        verify(sessionRepository, never()).save(any());
+        verify(userRepository, never()).existsById(any());
+        verify(sessionCatalogCache).evict(1L);
     }
 
     @Test
     void participate_shouldThrowNotFound_whenSessionNotFound() {
         // GIVEN
-        User user = new User();
-        Long userId = 2L;
-        user.setId(userId);
-
-        Long sessionId = 1L;
-
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(false);
 
         // THEN
         assertThrows(NotFoundException.class,
-            () -> sessionService.participate(sessionId, userId));
+            () -> sessionService.participate(1L, 2L));
     }
 
     @Test
     void participate_shouldThrowNotFound_whenUserNotFound() {
         // GIVEN
-        Session session = new Session();
-        Long sessionId = 1L;
-        session.setUsers(new ArrayList<>());
-
-        Long userId = 2L;
-
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         // THEN
         assertThrows(NotFoundException.class,
-            () -> sessionService.participate(sessionId, userId));
+            () -> sessionService.participate(1L, 2L));
     }
 
     @Test
     void participate_shouldThrowBadRequest_whenUserAlreadyParticipates() {
         // GIVEN
-        User user = new User();
-        Long userId = 2L;
-        user.setId(userId);
-
-        Session session = new Session();
-        Long sessionId = 1L;
-        session.setUsers(new ArrayList<>(List.of(user)));
-
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(sessionRepository.addParticipant(1L, 2L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
 
         // THEN
         assertThrows(BadRequestException.class,
-            () -> sessionService.participate(sessionId, userId));
+            () -> sessionService.participate(1L, 2L));
+        verify(sessionCatalogCache, never()).evict(any());
     }
 
     @Test
-    void noLongerParticipate_shouldRemoveOnlyUserFromSession() {
+    void participate_shouldThrowBadRequest_whenConcurrentInsertHitsPrimaryKey() {
         // GIVEN
-        User user = new User();
-        Long userId = 2L;
-        user.setId(userId);
-
-        Session session = new Session();
-        session.setUsers(new ArrayList<>(List.of(user)));
-        Long sessionId = 1L;
-
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-
-        // WHEN
-        sessionService.noLongerParticipate(sessionId, userId);
+        when(sessionRepository.addParticipant(1L, 2L)).thenThrow(new DataIntegrityViolationException("duplicate"));
 
         // THEN
-        assertTrue(session.getUsers().isEmpty());
-        verify(sessionRepository).save(session);
+        assertThrows(BadRequestException.class,
+            () -> sessionService.participate(1L, 2L));
     }
 
     @Test
-    void noLongerParticipate_shouldRemoveOneOfSeveralUserFromSession() {
+    void noLongerParticipate_shouldDeleteParticipationInOneStatement() {
         // GIVEN
-        User user1 = new User();
-        user1.setId(1L);
-
-        User user2 = new User();
-        user2.setId(2L);
-
-        Session session = new Session();
-        session.setUsers(new ArrayList<>(List.of(user1, user2)));
-
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.removeParticipant(1L, 2L)).thenReturn(1);
 
         // WHEN
-        sessionService.noLongerParticipate(1L, 1L);
+        sessionService.noLongerParticipate(1L, 2L);
 
         // THEN
-        assertEquals(1, session.getUsers().size());
-        assertEquals(2L, session.getUsers().get(0).getId());
+        verify(sessionRepository, never()).findById(any());
+        verify(sessionRepository, never()).save(any());
+        verify(sessionCatalogCache).evict(1L);
     }
 
     @Test
     void noLongerParticipate_shouldThrowNotFound_whenSessionNotFound() {
         // GIVEN
-        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(false);
 
         // THEN
         assertThrows(NotFoundException.class,
@@ -259,10 +304,8 @@ class SessionServiceTest {
     @Test
     void noLongerParticipate_shouldThrowBadRequest_whenUserNotParticipating() {
         // GIVEN
-        Session session = new Session();
-        session.setUsers(Collections.emptyList());
-
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(0);
+        when(sessionRepository.existsById(1L)).thenReturn(true);
 
         // THEN
         assertThrows(BadRequestException.class,
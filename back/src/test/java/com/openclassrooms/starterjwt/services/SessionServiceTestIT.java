@@ -0,0 +1,208 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import({SessionService.class, TeacherService.class, UserService.class, SessionMapperImpl.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.session.events.log=false"
+})
+class SessionServiceTestIT {
+
+    private static final int SESSION_COUNT = 500;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+
+    @MockBean
+    private TokenVersionService tokenVersionService;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private SessionCatalogCache sessionCatalogCache;
+
+    @Test
+    void findAllWithParticipantIds_shouldUseConstantNumberOfStatements() {
+        // GIVEN
+        Teacher teacher1 = Teacher.builder().firstName("Margot").lastName("Delahaye").build();
+        Teacher teacher2 = Teacher.builder().firstName("Helene").lastName("Thiercelin").build();
+        entityManager.persist(teacher1);
+        entityManager.persist(teacher2);
+
+        User user1 = new User("u1@test.com", "Nom", "User1", "pwd", false);
+        User user2 = new User("u2@test.com", "Nom", "User2", "pwd", false);
+        entityManager.persist(user1);
+        entityManager.persist(user2);
+
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            entityManager.persist(Session.builder()
+                .name("Session " + i)
+                .description("Session description")
+                .date(new Date(i * 1000L))
+                .teacher(i % 2 == 0 ? teacher1 : teacher2)
+                .users(i % 2 == 0 ? Arrays.asList(user1, user2) : Arrays.asList(user2))
+                .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // WHEN
+        List<Session> sessions = sessionService.findAll();
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessions);
+        List<SessionDto> dtos = sessionMapper.toDto(sessions, participantIds);
+
+        // THEN
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(SESSION_COUNT + 2, statistics.getEntityLoadCount());
+        assertEquals(SESSION_COUNT, dtos.size());
+        assertEquals(SESSION_COUNT / 2 * 3, dtos.stream().mapToInt(dto -> dto.getUsers().size()).sum());
+        assertEquals(Arrays.asList(user2.getId()), dtos.stream()
+            .filter(dto -> dto.getTeacher_id().equals(teacher2.getId()))
+            .findFirst()
+            .get()
+            .getUsers());
+    }
+
+    @Test
+    void persist_shouldBatchInsertsInsteadOfOneStatementPerSession() {
+        // GIVEN
+        Teacher teacher = Teacher.builder().firstName("Margot").lastName("Delahaye").build();
+        entityManager.persist(teacher);
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // WHEN
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            entityManager.persist(Session.builder()
+                .name("Session " + i)
+                .description("Session description")
+                .date(new Date(i * 1000L))
+                .teacher(teacher)
+                .build());
+        }
+        entityManager.flush();
+
+        // THEN
+        // ids come from 50-id blocks and the inserts go out in batches of 50, so this stays far below one per row
+        assertEquals(SESSION_COUNT, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < SESSION_COUNT / 10,
+            "prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void participate_shouldInsertAndDeleteWithOneStatementEach() {
+        // GIVEN
+        User user = new User("participant@test.com", "Nom", "Participant", "pwd", false);
+        entityManager.persist(user);
+        Session session = Session.builder()
+            .name("Yoga")
+            .description("Session description")
+            .date(new Date(0))
+            .build();
+        entityManager.persist(session);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // WHEN
+        sessionService.participate(session.getId(), user.getId());
+
+        // THEN
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(Arrays.asList(user.getId()),
+            sessionService.findParticipantIds(Arrays.asList(session)).get(session.getId()));
+
+        // WHEN
+        statistics.clear();
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+
+        // THEN
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(sessionService.findParticipantIds(Arrays.asList(session)).isEmpty());
+    }
+
+    @Test
+    void participate_shouldMapAffectedRowsToErrors() {
+        // GIVEN
+        User user = new User("errors@test.com", "Nom", "Participant", "pwd", false);
+        entityManager.persist(user);
+        Session session = Session.builder()
+            .name("Yoga")
+            .description("Session description")
+            .date(new Date(0))
+            .build();
+        entityManager.persist(session);
+        entityManager.flush();
+
+        sessionService.participate(session.getId(), user.getId());
+
+        // THEN
+        assertThrows(BadRequestException.class, () -> sessionService.participate(session.getId(), user.getId()));
+        assertThrows(NotFoundException.class, () -> sessionService.participate(session.getId(), -1L));
+        assertThrows(NotFoundException.class, () -> sessionService.participate(-1L, user.getId()));
+        assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(-1L, user.getId()));
+
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+        assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(session.getId(), user.getId()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.internal.StatisticalLoggingSessionEventListener;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.HibernateCacheConfig;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import({HibernateCacheConfig.class, TeacherService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:teachercachedb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class TeacherCacheTestIT {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Teacher teacher;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder().firstName("Margot").lastName("Delahaye").build());
+        teacherRepository.save(Teacher.builder().firstName("Helene").lastName("Thiercelin").build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void findById_shouldBeServedFromSecondLevelCacheOnRepeatedReads() {
+        // GIVEN
+        teacherService.findById(teacher.getId());
+        statistics.clear();
+
+        // WHEN
+        Teacher first = teacherService.findById(teacher.getId());
+        Teacher second = teacherService.findById(teacher.getId());
+
+        // THEN
+        assertEquals("Margot", first.getFirstName());
+        assertEquals("Margot", second.getFirstName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(Teacher.class.getName()).getHitCount());
+    }
+
+    @Test
+    void findAll_shouldBeServedFromQueryCacheOnRepeatedReads() {
+        // GIVEN
+        teacherService.findAll();
+        statistics.clear();
+
+        // WHEN
+        int size = teacherService.findAll().size();
+
+        // THEN
+        assertEquals(2, size);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void update_shouldBeVisibleOnNextRead() {
+        // GIVEN
+        teacherService.findAll();
+        teacherService.findById(teacher.getId());
+
+        // WHEN
+        teacherRepository.save(teacherService.findById(teacher.getId()).setLastName("Renamed"));
+        statistics.clear();
+
+        // THEN
+        assertEquals("Renamed", teacherService.findById(teacher.getId()).getLastName());
+        assertTrue(teacherService.findAll().stream().anyMatch(t -> "Renamed".equals(t.getLastName())));
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void statistics_shouldNotLogSessionMetricsPerSession() {
+        // GIVEN
+        Logger sessionMetricsLogger = (Logger) LoggerFactory.getLogger(StatisticalLoggingSessionEventListener.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        sessionMetricsLogger.addAppender(appender);
+
+        // WHEN
+        try {
+            teacherService.findAll();
+            teacherService.findById(teacher.getId());
+        } finally {
+            sessionMetricsLogger.detachAppender(appender);
+        }
+
+        // THEN
+        assertTrue(statistics.isStatisticsEnabled());
+        assertTrue(appender.list.isEmpty(), () -> appender.list.get(0).getFormattedMessage());
+    }
+}
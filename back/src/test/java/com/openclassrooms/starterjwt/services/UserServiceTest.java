@@ -1,16 +1,21 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.TokenVersionService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,11 +24,20 @@ class UserServiceTest {
 	@Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository);
+        userService = new UserService(userRepository, userDetailsCache, tokenVersionService, refreshTokenService);
     }
 
     @Test
@@ -36,6 +50,32 @@ class UserServiceTest {
 
         // THEN
         verify(userRepository).deleteById(userId);
+        verify(userDetailsCache).evictById(userId);
+        verify(tokenVersionService).evict(userId);
+    }
+
+    @Test
+    void revokeTokens_shouldBumpVersionAndEvictCaches() {
+        // GIVEN
+        when(userRepository.incrementTokenVersion(1L)).thenReturn(1);
+
+        // WHEN
+        userService.revokeTokens(1L);
+
+        // THEN
+        verify(refreshTokenService).revokeAll(1L);
+        verify(userDetailsCache).evictById(1L);
+        verify(tokenVersionService).evict(1L);
+    }
+
+    @Test
+    void revokeTokens_shouldThrowNotFound_whenUserMissing() {
+        // GIVEN
+        when(userRepository.incrementTokenVersion(1L)).thenReturn(0);
+
+        // THEN
+        assertThrows(NotFoundException.class, () -> userService.revokeTokens(1L));
+        verify(tokenVersionService, never()).evict(1L);
     }
 
     @Test
@@ -68,4 +108,22 @@ class UserServiceTest {
         // THEN
         assertNull(result);
     }
+
+    @Test
+    void findAllById_shouldResolveAllUsersInOneCall() {
+        // GIVEN
+        User user1 = new User();
+        user1.setId(1L);
+        User user2 = new User();
+        user2.setId(2L);
+
+        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(user1, user2));
+
+        // WHEN
+        List<User> result = userService.findAllById(List.of(1L, 2L));
+
+        // THEN
+        assertEquals(2, result.size());
+        verify(userRepository, never()).findById(any());
+    }
 }